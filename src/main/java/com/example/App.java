@@ -1,5 +1,6 @@
 package com.example;
 
+import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
@@ -14,6 +15,17 @@ public class App {
             span.setAttribute("application", "k8s-job-monitor");
             span.setAttribute("version", "1.0-SNAPSHOT");
 
+            // Built-in SDK pipeline; flushed by its shutdown hook on exit
+            TelemetryBootstrap.install();
+
+            // Resident mode: keep clients warm and serve submissions over HTTP
+            if (args.length > 0 && "daemon".equals(args[0])) {
+                span.setAttribute("mode", "daemon");
+                JobMonitorDaemon.run(args);
+                span.setStatus(StatusCode.OK);
+                return;
+            }
+
             System.out.println("🚀 Starting Kubernetes Job Monitor - Multiple Patterns");
             System.out.println("=====================================================");
 
@@ -26,29 +38,41 @@ public class App {
 
             System.out.println("✅ Kubernetes cluster is available");
 
-            // Option 1: Run Sidecar Pattern (Original)
-            System.out.println("\n1️⃣  Testing SIDECAR Pattern...");
+            // Run the patterns as a workflow: sidecar and file-based in parallel,
+            // database metrics launched as soon as the file-based job completes
+            System.out.println("\n🔀 Running patterns as a job workflow...");
             System.out.println("=====================================================");
-            JobCreator sidecarCreator = new JobCreator();
-            sidecarCreator.createJobWithSidecar();
+            JobWorkflow workflow = new MonitoringPatterns().combined();
+
+            // Fold per-job metrics into per-template rollups instead of per-pod series
+            MetricsAggregator aggregator = new MetricsAggregator(MetricsAggregator.DEFAULT_WINDOW_MILLIS,
+                    MetricsAggregator.DetailRetention.FAILED_ONLY, MetricsAggregator.DEFAULT_DETAILS_PER_TEMPLATE);
+            aggregator.registerExport(GlobalOpenTelemetry.getMeter("k8s-job-monitor"));
+            JobMetricsCollector metricsCollector =
+                    new JobMetricsCollector(KubernetesClients.coreApi(), aggregator, "default");
 
-            // Wait a bit between patterns
-            Thread.sleep(5000);
+            JobWorkflowExecutor.Result result = new JobWorkflowExecutor(KubernetesClients.batchApi(), "default")
+                    .onNodeFinished(metricsCollector::collect)
+                    .execute(workflow, MonitoringPatterns.WORKFLOW_TIMEOUT_MILLIS);
 
-            // Option 2: Run File-Based Pattern (New)
-            System.out.println("\n2️⃣  Testing FILE-BASED Pattern...");
             System.out.println("=====================================================");
-            FileMetricsJobCreator fileMetricsCreator = new FileMetricsJobCreator();
-            fileMetricsCreator.createJobWithFileMetrics();
+            System.out.println("📋 Workflow finished in " + result.getElapsedMillis() / 1000 + "s");
+            result.getStates().forEach((node, state) -> System.out.println("   - " + node + ": " + state));
+            System.out.println("🧭 Critical path: " + String.join(" -> ", result.getCriticalPath()));
 
-            // Wait a bit between patterns
-            Thread.sleep(5000);
+            // One window ahead, so the window the run ended in is closed and included
+            long summaryAt = System.currentTimeMillis() + MetricsAggregator.DEFAULT_WINDOW_MILLIS;
+            for (MetricsAggregator.Rollup rollup : aggregator.mergedRollups(summaryAt).values()) {
+                System.out.println("📈 " + rollup.getTemplate() + ": " + rollup.getJobs() + " job(s), "
+                        + rollup.getMetrics().size() + " aggregated metric(s)");
+                rollup.getMetrics().forEach((metric, sketch) -> System.out.println(
+                        "     " + metric + " p50=" + sketch.quantile(0.5) + " p99=" + sketch.quantile(0.99)
+                                + " max=" + sketch.getMax()));
+            }
 
-            // Option 3: Run Database Metrics Pattern (New)
-            System.out.println("\n3️⃣  Testing DATABASE METRICS Pattern...");
-            System.out.println("=====================================================");
-            DatabaseMetricsJobCreator dbMetricsCreator = new DatabaseMetricsJobCreator();
-            dbMetricsCreator.createDatabaseMetricsJob();
+            if (!result.isSucceeded()) {
+                throw new RuntimeException("Workflow did not complete successfully");
+            }
 
             System.out.println("=====================================================");
             System.out.println("🎉 All patterns completed successfully!");
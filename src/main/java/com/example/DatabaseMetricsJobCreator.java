@@ -1,48 +1,14 @@
 package com.example;
 
 import io.kubernetes.client.custom.Quantity;
-import io.kubernetes.client.openapi.ApiException;
-import io.kubernetes.client.openapi.apis.BatchV1Api;
 import io.kubernetes.client.openapi.models.*;
-import io.opentelemetry.api.trace.Span;
-import io.opentelemetry.api.trace.StatusCode;
 
 import java.util.Arrays;
 import java.util.Map;
-import java.util.Objects;
 
 public class DatabaseMetricsJobCreator {
 
-    private final BatchV1Api batchApi;
-
-    public DatabaseMetricsJobCreator() {
-        this.batchApi = new FileMetricsJobCreator().createKubernetesClient();
-    }
-
-    public void createDatabaseMetricsJob() {
-        Span span = Span.current();
-
-        try {
-            System.out.println("Creating database metrics job...");
-
-            // Create the Job object
-            V1Job job = createDatabaseMetricsJobObject();
-
-            // Create the job in Kubernetes
-            V1Job createdJob = batchApi.createNamespacedJob("default", job, null, null, null, null);
-
-            System.out.println("✅ Database metrics job created: " + createdJob.getMetadata().getName());
-
-            // Monitor job completion
-            monitorJobCompletion(createdJob.getMetadata().getName());
-
-        } catch (Exception e) {
-            System.err.println("❌ Error creating database metrics job: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    private V1Job createDatabaseMetricsJobObject() {
+    V1Job createDatabaseMetricsJobObject() {
         // ULTRA SIMPLE - guaranteed to work
         V1Container dbMetricsContainer = new V1Container()
                 .name("database-metrics-generator")
@@ -76,7 +42,7 @@ public class DatabaseMetricsJobCreator {
 
         // Job metadata
         V1ObjectMeta metadata = new V1ObjectMeta()
-                .name("database-metrics-" + System.currentTimeMillis())
+                .generateName("database-metrics-")
                 .labels(Map.of(
                         "app", "database-metrics",
                         "metrics-type", "database"
@@ -88,42 +54,4 @@ public class DatabaseMetricsJobCreator {
                 .metadata(metadata)
                 .spec(jobSpec);
     }
-
-    private void monitorJobCompletion(String jobName) {
-        try {
-            System.out.println("Monitoring job: " + jobName);
-
-            for (int i = 0; i < 10; i++) {
-                try {
-                    V1Job job = batchApi.readNamespacedJob(jobName, "default", null);
-                    V1JobStatus status = job.getStatus();
-
-                    if (status != null) {
-                        Integer succeeded = status.getSucceeded();
-                        Integer failed = status.getFailed();
-
-                        if (succeeded != null && succeeded > 0) {
-                            System.out.println("✅ Database job completed");
-                            return;
-                        }
-
-                        if (failed != null && failed > 0) {
-                            System.out.println("❌ Database job failed");
-                            return;
-                        }
-                    }
-
-                    System.out.println("Waiting... (" + (i + 1) + "/10)");
-                    Thread.sleep(3000);
-
-                } catch (ApiException e) {
-                    System.err.println("Error monitoring: " + e.getMessage());
-                }
-            }
-
-            System.out.println("Timeout reached");
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
 }
\ No newline at end of file
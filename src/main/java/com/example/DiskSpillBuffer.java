@@ -0,0 +1,299 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Bounded FIFO of serialized export requests backed by a memory-mapped file,
+ * so telemetry that could not reach the collector survives a monitor restart.
+ * The file is held under an exclusive lock; see {@link #tryOpen(Path, int)}.
+ *
+ * Layout: a 16-byte header, then records of
+ * {@code [kind:1][length:4][crc32:4][payload]}. The header's first word packs
+ * the read and write offsets into one aligned 8-byte store, so they always
+ * change together; the second word marks the format.
+ *
+ * Crash safety: a record's bytes are written before the offsets that expose
+ * it. When the tail reaches the end of the file the live region is moved to
+ * the front, but only if it does not overlap its old position, so the old
+ * copy stays intact until the offsets switch to the new one; otherwise the
+ * record is dropped and counted. That ordering holds for a crashed process,
+ * whose writes the page cache keeps. After an OS crash pages may reach disk
+ * out of order, so records are validated against their length and checksum
+ * on open and the log is truncated at the first bad one.
+ */
+public class DiskSpillBuffer implements AutoCloseable {
+
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 9;
+    private static final long FORMAT = 0x4b4a4d5350494c32L;
+
+    /** A buffered export request. */
+    public static final class Record {
+        private final byte kind;
+        private final byte[] payload;
+
+        Record(byte kind, byte[] payload) {
+            this.kind = kind;
+            this.payload = payload;
+        }
+
+        public byte getKind() {
+            return kind;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+
+    private final Path path;
+    private final RandomAccessFile file;
+    private final FileLock lock;
+    private final MappedByteBuffer mapped;
+    private final ByteBuffer data;
+    private final int capacity;
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private int readPos;
+    private int writePos;
+
+    /**
+     * Opens (or creates) the spill file and takes an exclusive lock on it.
+     * Returns null if another process, or another buffer in this one, already
+     * holds the lock.
+     */
+    public static DiskSpillBuffer tryOpen(Path path, int sizeBytes) throws IOException {
+        if (sizeBytes <= HEADER_BYTES + RECORD_HEADER_BYTES) {
+            throw new IllegalArgumentException("Spill buffer too small: " + sizeBytes);
+        }
+
+        RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+        try {
+            FileLock lock;
+            try {
+                lock = file.getChannel().tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                file.close();
+                return null;
+            }
+            return new DiskSpillBuffer(path, file, lock, sizeBytes);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private DiskSpillBuffer(Path path, RandomAccessFile file, FileLock lock, int sizeBytes) throws IOException {
+        this.path = path;
+        this.file = file;
+        this.lock = lock;
+
+        // Keep an existing spill file's size so its contents stay readable
+        long length = file.length() > HEADER_BYTES + RECORD_HEADER_BYTES ? file.length() : sizeBytes;
+        if (file.length() != length) {
+            file.setLength(length);
+        }
+        this.mapped = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        this.capacity = (int) length - HEADER_BYTES;
+        this.data = mapped.duplicate().position(HEADER_BYTES).slice();
+
+        long positions = mapped.getLong(0);
+        readPos = (int) (positions >>> 32);
+        writePos = (int) positions;
+        if (mapped.getLong(8) != FORMAT || readPos < 0 || writePos < readPos || writePos > capacity) {
+            readPos = 0;
+            writePos = 0;
+            mapped.putLong(8, FORMAT);
+            writeHeader();
+        } else {
+            truncateAtFirstBadRecord();
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /** Appends a record; returns false (and counts a drop) if it does not fit. */
+    public synchronized boolean append(byte kind, byte[] payload) {
+        int needed = RECORD_HEADER_BYTES + payload.length;
+        if (writePos + needed > capacity) {
+            compact();
+        }
+        if (writePos + needed > capacity) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        data.put(writePos, kind);
+        data.putInt(writePos + 1, payload.length);
+        data.putInt(writePos + 5, checksum(payload));
+        ByteBuffer target = data.duplicate();
+        target.position(writePos + RECORD_HEADER_BYTES);
+        target.put(payload);
+
+        writePos += needed;
+        writeHeader();
+        appended.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Returns the oldest record without removing it, or null if empty. A
+     * record whose length or checksum does not hold up discards the rest of
+     * the log, since later record boundaries cannot be trusted either.
+     */
+    public synchronized Record peek() {
+        if (readPos == writePos) {
+            return null;
+        }
+        int length = recordLength(readPos);
+        if (length < 0) {
+            discardFrom(readPos);
+            return null;
+        }
+        byte[] payload = new byte[length];
+        ByteBuffer source = data.duplicate();
+        source.position(readPos + RECORD_HEADER_BYTES);
+        source.get(payload);
+        if (checksum(payload) != data.getInt(readPos + 5)) {
+            discardFrom(readPos);
+            return null;
+        }
+        return new Record(data.get(readPos), payload);
+    }
+
+    /** Removes the oldest record. */
+    public synchronized void remove() {
+        if (readPos == writePos) {
+            return;
+        }
+        int length = recordLength(readPos);
+        if (length < 0) {
+            discardFrom(readPos);
+            return;
+        }
+        readPos += RECORD_HEADER_BYTES + length;
+        if (readPos == writePos) {
+            readPos = 0;
+            writePos = 0;
+        }
+        writeHeader();
+        removed.incrementAndGet();
+    }
+
+    public synchronized boolean isEmpty() {
+        return readPos == writePos;
+    }
+
+    public synchronized int usedBytes() {
+        return writePos - readPos;
+    }
+
+    public long getAppended() {
+        return appended.get();
+    }
+
+    public long getRemoved() {
+        return removed.get();
+    }
+
+    /** Records dropped because the buffer was full or found corrupt. */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapped.force();
+        lock.release();
+        file.close();
+    }
+
+    // Length of the record at pos, or -1 if it does not fit between pos and writePos
+    private int recordLength(int pos) {
+        if (writePos - pos < RECORD_HEADER_BYTES) {
+            return -1;
+        }
+        int length = data.getInt(pos + 1);
+        if (length < 0 || length > writePos - pos - RECORD_HEADER_BYTES) {
+            return -1;
+        }
+        return length;
+    }
+
+    private void truncateAtFirstBadRecord() {
+        int pos = readPos;
+        while (pos < writePos) {
+            int length = recordLength(pos);
+            if (length < 0) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            ByteBuffer source = data.duplicate();
+            source.position(pos + RECORD_HEADER_BYTES);
+            source.get(payload);
+            if (checksum(payload) != data.getInt(pos + 5)) {
+                break;
+            }
+            pos += RECORD_HEADER_BYTES + length;
+        }
+        if (pos < writePos) {
+            discardFrom(pos);
+        }
+    }
+
+    private void discardFrom(int pos) {
+        System.err.println("⚠️  Spill file " + path + " is corrupt at offset " + pos
+                + ", discarding " + (writePos - pos) + " bytes");
+        dropped.incrementAndGet();
+        writePos = pos;
+        if (readPos == writePos) {
+            readPos = 0;
+            writePos = 0;
+        }
+        writeHeader();
+    }
+
+    private void compact() {
+        int live = writePos - readPos;
+        // Only move the live region if the copy cannot overwrite its own source
+        if (readPos == 0 || readPos < live) {
+            return;
+        }
+        ByteBuffer source = data.duplicate();
+        source.position(readPos).limit(writePos);
+        ByteBuffer target = data.duplicate();
+        target.position(0);
+        target.put(source);
+        // The copy must be on disk before the offsets point at it
+        mapped.force();
+
+        readPos = 0;
+        writePos = live;
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        mapped.putLong(0, ((long) readPos << 32) | (writePos & 0xffffffffL));
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example;
+
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1Job;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in cluster for {@link JobWorkflowExecutor}: "creating" a Job
+ * serializes it exactly as the client would send it, decodes the result with
+ * {@link JobStatusDecoder} and reports it complete straight away. Used by the
+ * daemon's {@code --dry-run} and {@code --warmup} modes, so the AppCDS
+ * training run loads the same classes as a real submission.
+ */
+class DryRunCluster implements JobWorkflowExecutor.JobLauncher, JobWorkflowExecutor.EventSource {
+
+    private final JSON json = new JSON();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, BlockingQueue<JobStatusDecoder.WatchEvent>> runs = new ConcurrentHashMap<>();
+
+    @Override
+    public String create(V1Job job) {
+        // Name the Job as the API server would for a generateName template
+        V1ObjectMeta metadata = job.getMetadata();
+        String name = metadata.getName() != null ? metadata.getName()
+                : (metadata.getGenerateName() != null ? metadata.getGenerateName() : "dry-run-")
+                        + sequence.incrementAndGet();
+        String body = json.serialize(job.metadata(metadata.name(name)));
+
+        // Echo the Job back as the API server would once it has completed
+        String completed = body.substring(0, body.length() - 1)
+                + ",\"status\":{\"succeeded\":1,\"conditions\":[{\"type\":\"Complete\",\"status\":\"True\"}]}}";
+        JobStatusSnapshot snapshot;
+        try {
+            snapshot = JobStatusDecoder.decodeJob(new StringReader(completed));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not decode serialized Job " + name, e);
+        }
+
+        String runId = job.getMetadata().getLabels().get(JobWorkflowExecutor.RUN_LABEL);
+        BlockingQueue<JobStatusDecoder.WatchEvent> events = runs.get(JobWorkflowExecutor.RUN_LABEL + "=" + runId);
+        if (events != null) {
+            events.add(new JobStatusDecoder.WatchEvent("MODIFIED", snapshot));
+        }
+        System.out.println("🧪 Dry run: would create Job " + name + " (" + body.length() + " bytes)");
+        return name;
+    }
+
+    @Override
+    public void delete(String jobName) {
+        System.out.println("🧪 Dry run: would delete Job " + jobName);
+    }
+
+    @Override
+    public JobWorkflowExecutor.Events open(String selector) {
+        BlockingQueue<JobStatusDecoder.WatchEvent> events = new LinkedBlockingQueue<>();
+        runs.put(selector, events);
+        return new JobWorkflowExecutor.Events() {
+            @Override
+            public JobStatusDecoder.WatchEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+                return events.poll(timeout, unit);
+            }
+
+            @Override
+            public void close() {
+                runs.remove(selector);
+            }
+        };
+    }
+}
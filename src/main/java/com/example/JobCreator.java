@@ -1,117 +1,33 @@
 package com.example;
 
 import io.kubernetes.client.custom.Quantity;
-import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
-import io.kubernetes.client.openapi.Configuration;
 import io.kubernetes.client.openapi.apis.BatchV1Api;
 import io.kubernetes.client.openapi.models.*;
 import io.opentelemetry.api.trace.Span;
-import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
-import io.kubernetes.client.util.Config;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
-import java.io.IOException;
 
 public class JobCreator {
 
+    /**
+     * How long a workflow keeps the sidecar Job before deleting it. The
+     * collector sidecar never exits, so the Job never completes on its own;
+     * this covers the main container's 35 iterations of 5s plus pod startup.
+     */
+    static final long SIDECAR_RUN_MILLIS = 200 * 1000;
+
     private final BatchV1Api batchApi;
 
     public JobCreator() {
-        this.batchApi = createKubernetesClient();
-    }
-
-    private BatchV1Api createKubernetesClient() {
-        try {
-            ApiClient client = Config.defaultClient();
-            Configuration.setDefaultApiClient(client);
-
-            client.setConnectTimeout(30000);
-            client.setReadTimeout(30000);
-            client.setWriteTimeout(30000);
-
-            System.out.println("Kubernetes client configured successfully");
-            return new BatchV1Api(client);
-
-        } catch (IOException e) {
-            System.err.println("Failed to configure Kubernetes client: " + e.getMessage());
-            throw new RuntimeException("Kubernetes client configuration failed", e);
-        }
-    }
-
-    @WithSpan("job.creator.createJobWithSidecar")
-    public void createJobWithSidecar() {
-        Span span = Span.current();
-
-        try {
-            span.setAttribute("job.name", "busybox-with-metrics-sidecar");
-            span.setAttribute("job.namespace", "default");
-
-            // Test connection first
-            testKubernetesConnection();
-
-            // Create the Job object with busybox main container
-            V1Job job = createJobObject();
-
-            span.addEvent("Creating Kubernetes Job");
-            System.out.println("Creating job with busybox main container...");
-
-            // Create the job in Kubernetes
-            V1Job createdJob = batchApi.createNamespacedJob("default", job, null, null, null, null);
-
-            span.addEvent("Job created successfully");
-            span.setAttribute("job.uid", createdJob.getMetadata().getUid());
-            span.setAttribute("job.name", createdJob.getMetadata().getName());
-
-            System.out.println("✅ Job created successfully: " + createdJob.getMetadata().getName());
-            System.out.println("📊 Main container: busybox:latest");
-            System.out.println("📈 Monitoring sidecar: otel/opentelemetry-collector-contrib:0.80.0");
-
-            // Monitor job completion
-            monitorJobCompletion(createdJob.getMetadata().getName());
-
-            span.setStatus(StatusCode.OK);
-
-        } catch (ApiException e) {
-            span.recordException(e);
-            String errorMsg = "Failed to create job: " + e.getMessage();
-            span.setStatus(StatusCode.ERROR, errorMsg);
-            System.err.println("❌ Error creating job: " + e.getMessage());
-            if (e.getResponseBody() != null) {
-                System.err.println("Response: " + e.getResponseBody());
-            }
-            throw new RuntimeException(errorMsg, e);
-        } catch (Exception e) {
-            span.recordException(e);
-            String errorMsg = "Unexpected error: " + e.getMessage();
-            span.setStatus(StatusCode.ERROR, errorMsg);
-            System.err.println("❌ Unexpected error: " + e.getMessage());
-            throw new RuntimeException(errorMsg, e);
-        }
-    }
-
-    @WithSpan("job.creator.testConnection")
-    private void testKubernetesConnection() throws ApiException {
-        Span span = Span.current();
-
-        try {
-            System.out.println("Testing connection to Kubernetes API...");
-            batchApi.getAPIResources();
-            span.addEvent("Kubernetes API connection successful");
-            System.out.println("✅ Connected to Kubernetes API successfully");
-        } catch (ApiException e) {
-            span.recordException(e);
-            span.setStatus(StatusCode.ERROR, "Failed to connect to Kubernetes API");
-            System.err.println("❌ Cannot connect to Kubernetes API");
-            throw e;
-        }
+        this.batchApi = KubernetesClients.batchApi();
     }
 
     @WithSpan("job.creator.createJobObject")
-    private V1Job createJobObject() {
+    V1Job createJobObject() {
         Span span = Span.current();
 
         try {
@@ -174,9 +90,9 @@ public class JobCreator {
                     .backoffLimit(1)  // Allow 1 retry instead of 0
                     .ttlSecondsAfterFinished(300);
 
-            // Job metadata
+            // Job metadata; the API server picks a unique name, so concurrent runs never collide
             V1ObjectMeta metadata = new V1ObjectMeta()
-                    .name("busybox-monitored-job-" + System.currentTimeMillis())
+                    .generateName("busybox-monitored-job-")
                     .labels(Map.of(
                             "app", "busybox-monitored",
                             "created-by", "java-app"
@@ -194,79 +110,6 @@ public class JobCreator {
         }
     }
 
-    @WithSpan("job.creator.monitorJobCompletion")
-    private void monitorJobCompletion(String jobName) {
-        Span span = Span.current();
-        span.setAttribute("job.name", jobName);
-
-        try {
-            System.out.println("🔍 Monitoring job: " + jobName);
-            System.out.println("📊 OpenTelemetry sidecar is collecting metrics from busybox container...");
-
-            for (int i = 0; i < 15; i++) { // Increased timeout for slower startup
-                try {
-                    V1Job job = batchApi.readNamespacedJob(jobName, "default", null);
-
-                    V1JobStatus status = job.getStatus();
-                    if (status != null) {
-                        Integer succeeded = status.getSucceeded();
-                        Integer failed = status.getFailed();
-
-                        span.setAttribute("monitor.iteration", i);
-                        span.setAttribute("job.succeeded", succeeded != null ? succeeded : 0);
-                        span.setAttribute("job.failed", failed != null ? failed : 0);
-
-                        if (succeeded != null && succeeded > 0) {
-                            span.addEvent("Job completed successfully");
-                            span.setStatus(StatusCode.OK);
-                            System.out.println("✅ Job completed successfully");
-                            System.out.println("📈 Check sidecar logs for collected metrics: kubectl logs <pod-name> -c otel-sidecar");
-                            return;
-                        }
-
-                        if (failed != null && failed > 0) {
-                            span.addEvent("Job failed");
-                            span.setStatus(StatusCode.ERROR, "Job failed");
-                            System.out.println("❌ Job failed - checking logs for details...");
-
-                            // Try to get failure details immediately
-                            try {
-                                String podName = kubectlGetPodName(jobName);
-                                System.out.println("Pod name: " + podName);
-                                System.out.println("Check logs with: kubectl logs " + podName + " -c busybox-main");
-                            } catch (Exception logEx) {
-                                System.out.println("Could not retrieve pod logs automatically");
-                            }
-                            return;
-                        }
-                    }
-
-                    System.out.println("⏳ Waiting for job completion... (" + (i + 1) + "/15)");
-                    Thread.sleep(5000);
-
-                } catch (ApiException e) {
-                    System.err.println("⚠️  Error monitoring job: " + e.getMessage());
-                    span.recordException(e);
-                }
-            }
-
-            span.addEvent("Job monitoring timeout");
-            span.setStatus(StatusCode.ERROR, "Job monitoring timeout");
-            System.out.println("⏰ Job monitoring timeout reached");
-        } catch (InterruptedException e) {
-            span.recordException(e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Monitoring interrupted", e);
-        }
-    }
-
-    // Helper method to get pod name
-    private String kubectlGetPodName(String jobName) throws ApiException {
-        // This is a simplified approach - in production you'd use the Kubernetes API
-        // For now, we'll just return a message
-        return "Use: kubectl get pods -l app=busybox-with-metrics";
-    }
-
     public boolean isKubernetesAvailable() {
         try {
             batchApi.getAPIResources();
@@ -0,0 +1,89 @@
+package com.example;
+
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1Container;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pulls the {@code name value} metric lines the job containers print
+ * (process_*, workload_*, db_*) from the pod logs of a finished Job and
+ * hands them to a {@link MetricsAggregator}, keyed by the Job's {@code app}
+ * label so every run of a template lands in the same rollup.
+ */
+public class JobMetricsCollector {
+
+    private static final Pattern METRIC_LINE =
+            Pattern.compile("^\\s*([a-zA-Z_:][a-zA-Z0-9_:]*)\\s+(-?[0-9]+(?:\\.[0-9]+)?(?:[eE][-+]?[0-9]+)?)\\s*$");
+
+    private final CoreV1Api coreApi;
+    private final MetricsAggregator aggregator;
+    private final String namespace;
+
+    public JobMetricsCollector(CoreV1Api coreApi, MetricsAggregator aggregator, String namespace) {
+        this.coreApi = coreApi;
+        this.aggregator = aggregator;
+        this.namespace = namespace;
+    }
+
+    /** Collects the metrics of a finished Job into the aggregator. */
+    public void collect(JobStatusSnapshot job, boolean failed) {
+        String template = templateOf(job);
+        Map<String, List<Double>> samples = new LinkedHashMap<>();
+
+        try {
+            V1PodList pods = coreApi.listNamespacedPod(namespace, null, null, null, null,
+                    "job-name=" + job.getName(), null, null, null, null, null);
+            for (V1Pod pod : pods.getItems()) {
+                if (pod.getSpec() == null) {
+                    continue;
+                }
+                for (V1Container container : pod.getSpec().getContainers()) {
+                    String log = coreApi.readNamespacedPodLog(pod.getMetadata().getName(), namespace,
+                            container.getName(), null, null, null, null, null, null, null, null);
+                    parseMetrics(log, samples);
+                }
+            }
+        } catch (ApiException e) {
+            System.err.println("⚠️  Could not read metrics for job " + job.getName() + ": " + e.getMessage());
+        }
+
+        aggregator.record(template, job.getName(), failed, samples, System.currentTimeMillis());
+    }
+
+    /** The rollup key of a Job: its {@code app} label, or its name if unlabelled. */
+    static String templateOf(JobStatusSnapshot job) {
+        return job.getLabels() != null ? job.getLabels().getOrDefault("app", job.getName()) : job.getName();
+    }
+
+    /**
+     * Parses {@code name value} lines. Counters ({@code *_total}) keep only
+     * their last value per job; gauges keep every sample.
+     */
+    static void parseMetrics(String log, Map<String, List<Double>> samples) {
+        if (log == null) {
+            return;
+        }
+        for (String line : log.split("\n")) {
+            Matcher matcher = METRIC_LINE.matcher(line);
+            if (!matcher.matches()) {
+                continue;
+            }
+            String name = matcher.group(1);
+            double value = Double.parseDouble(matcher.group(2));
+            List<Double> values = samples.computeIfAbsent(name, key -> new ArrayList<>());
+            if (name.endsWith("_total")) {
+                values.clear();
+            }
+            values.add(value);
+        }
+    }
+}
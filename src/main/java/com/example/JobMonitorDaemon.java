@@ -0,0 +1,478 @@
+package com.example;
+
+import com.google.gson.Gson;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Resident mode of the monitor. Keeps the Kubernetes client and job creators
+ * warm and accepts submissions over a small HTTP API bound to loopback:
+ *
+ * <pre>
+ *   GET  /health                 liveness and run count
+ *   POST /jobs?pattern=sidecar   submit a run (sidecar | file-metrics | database); 429 if the queue is full
+ *   GET  /jobs                   all retained runs
+ *   GET  /jobs/{id}              a single run
+ *   GET  /metrics                per-template rollups merged over the retained windows
+ *   GET  /metrics/details?template=app   raw samples retained for a template
+ * </pre>
+ *
+ * Each submission runs its pattern as a workflow through
+ * {@link JobWorkflowExecutor}, so a run's state is the real outcome of its
+ * Jobs, and every finished Job's metrics are folded into a
+ * {@link MetricsAggregator}. Runs execute on a bounded worker pool; the executor blocks until its
+ * Jobs finish, so the pool size is the number of runs monitored concurrently.
+ * At most {@link #DEFAULT_QUEUED_RUNS} runs wait for a worker. Finished runs
+ * are evicted oldest first beyond {@link #DEFAULT_RETAINED_RUNS}; runs still
+ * queued or running are never evicted.
+ * With {@code --dry-run} Jobs are only built and serialized, never created.
+ */
+public class JobMonitorDaemon {
+
+    static final int DEFAULT_PORT = 8089;
+    static final int DEFAULT_WORKERS = 4;
+    static final int DEFAULT_QUEUED_RUNS = 100;
+    static final int DEFAULT_RETAINED_RUNS = 1000;
+
+    private static final long WARMUP_TIMEOUT_MILLIS = 30 * 1000;
+
+    /** Runs a submitted workflow to completion and returns its outcome. */
+    interface WorkflowRunner {
+        JobWorkflowExecutor.Result run(JobWorkflow workflow) throws Exception;
+    }
+
+    private final int port;
+    private final int workers;
+    private final int maxQueuedRuns;
+    private final int maxRetainedRuns;
+    private final Gson gson = new Gson();
+    private final Map<String, Supplier<JobWorkflow>> patterns;
+    private final WorkflowRunner runner;
+    private final MetricsAggregator aggregator;
+    // Submission order, so eviction drops the oldest finished runs first
+    private final Map<String, JobRun> runs = new LinkedHashMap<>();
+
+    private HttpServer server;
+    private ExecutorService workerPool;
+
+    JobMonitorDaemon(int port, int workers, int maxQueuedRuns, int maxRetainedRuns,
+                     Map<String, Supplier<JobWorkflow>> patterns, WorkflowRunner runner,
+                     MetricsAggregator aggregator) {
+        this.port = port;
+        this.workers = workers;
+        this.maxQueuedRuns = maxQueuedRuns;
+        this.maxRetainedRuns = maxRetainedRuns;
+        this.patterns = patterns;
+        this.runner = runner;
+        this.aggregator = aggregator;
+    }
+
+    /** A daemon that runs the monitoring patterns against the cluster (or only serializes them). */
+    public static JobMonitorDaemon create(int port, int workers, boolean dryRun) {
+        MetricsAggregator aggregator = new MetricsAggregator(MetricsAggregator.DEFAULT_WINDOW_MILLIS,
+                MetricsAggregator.DetailRetention.FAILED_ONLY, MetricsAggregator.DEFAULT_DETAILS_PER_TEMPLATE);
+        aggregator.registerExport(GlobalOpenTelemetry.getMeter("k8s-job-monitor"));
+
+        JobWorkflowExecutor executor;
+        if (dryRun) {
+            // No pods to read logs from; only count the Jobs
+            DryRunCluster cluster = new DryRunCluster();
+            executor = new JobWorkflowExecutor(cluster, cluster).onNodeFinished((job, failed) ->
+                    aggregator.record(JobMetricsCollector.templateOf(job), job.getName(), failed,
+                            Collections.emptyMap(), System.currentTimeMillis()));
+        } else {
+            JobMetricsCollector collector =
+                    new JobMetricsCollector(KubernetesClients.coreApi(), aggregator, "default");
+            executor = new JobWorkflowExecutor(KubernetesClients.batchApi(), "default")
+                    .onNodeFinished(collector::collect);
+        }
+        return new JobMonitorDaemon(port, workers, DEFAULT_QUEUED_RUNS, DEFAULT_RETAINED_RUNS,
+                new MonitoringPatterns().single(),
+                workflow -> executor.execute(workflow, MonitoringPatterns.WORKFLOW_TIMEOUT_MILLIS), aggregator);
+    }
+
+    /** Entry point for {@code App daemon [--port N] [--workers N] [--dry-run] [--warmup]}. */
+    public static void run(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        int workers = DEFAULT_WORKERS;
+        boolean dryRun = false;
+        boolean warmupOnly = false;
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--workers":
+                    workers = Integer.parseInt(args[++i]);
+                    break;
+                case "--dry-run":
+                    dryRun = true;
+                    break;
+                case "--warmup":
+                    warmupOnly = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown daemon option: " + args[i]);
+            }
+        }
+
+        // The warm-up never touches the cluster
+        JobMonitorDaemon daemon = create(warmupOnly ? 0 : port, workers, dryRun || warmupOnly);
+        daemon.start();
+
+        if (warmupOnly) {
+            // Training run for the AppCDS archive: submit every pattern and exit
+            daemon.warmUp();
+            daemon.stop();
+            return;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::stop, "daemon-shutdown"));
+        System.out.println("🛰  Job monitor daemon listening on 127.0.0.1:" + daemon.getPort());
+    }
+
+    public void start() throws IOException {
+        // A bounded queue, so a burst of submissions is refused instead of piling up
+        workerPool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedRuns), runnable -> {
+                    Thread thread = new Thread(runnable, "daemon-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/health", this::handleHealth);
+        server.createContext("/jobs", this::handleJobs);
+        server.createContext("/metrics", this::handleMetrics);
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "daemon-http");
+            thread.setDaemon(false);
+            return thread;
+        }));
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            ((ExecutorService) server.getExecutor()).shutdownNow();
+        }
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+            try {
+                workerPool.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Submits a run of the named pattern, or returns null if it is unknown.
+     * Throws {@link RejectedExecutionException} if the queue is full.
+     */
+    public JobRun submit(String pattern) {
+        Supplier<JobWorkflow> workflow = patterns.get(pattern);
+        if (workflow == null) {
+            return null;
+        }
+
+        JobRun run = new JobRun(UUID.randomUUID().toString(), pattern);
+        synchronized (runs) {
+            runs.put(run.id, run);
+            evictFinishedRuns();
+        }
+
+        try {
+            workerPool.execute(() -> {
+                run.markRunning();
+                try {
+                    run.markFinished(runner.run(workflow.get()), null);
+                } catch (InterruptedException e) {
+                    run.markFinished(null, e);
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    run.markFinished(null, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (runs) {
+                runs.remove(run.id);
+            }
+            throw e;
+        }
+        return run;
+    }
+
+    // Callers hold the runs lock
+    private void evictFinishedRuns() {
+        Iterator<JobRun> oldestFirst = runs.values().iterator();
+        while (runs.size() > maxRetainedRuns && oldestFirst.hasNext()) {
+            if (oldestFirst.next().isFinished()) {
+                oldestFirst.remove();
+            }
+        }
+    }
+
+    public JobRun getRun(String id) {
+        synchronized (runs) {
+            return runs.get(id);
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "ok");
+        synchronized (runs) {
+            body.put("runs", runs.size());
+        }
+        respond(exchange, 200, body);
+    }
+
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String id = path.length() > "/jobs/".length() ? path.substring("/jobs/".length()) : null;
+
+        if ("POST".equals(method) && id == null) {
+            String pattern = queryParam(exchange.getRequestURI().getRawQuery(), "pattern");
+            JobRun run;
+            try {
+                run = pattern != null ? submit(pattern) : null;
+            } catch (RejectedExecutionException e) {
+                respond(exchange, 429, Map.of("error", "too many queued runs, retry later"));
+                return;
+            }
+            if (run == null) {
+                respond(exchange, 400, Map.of("error", "pattern must be one of " + patterns.keySet()));
+            } else {
+                respond(exchange, 202, run.toMap());
+            }
+        } else if ("GET".equals(method) && id == null) {
+            List<Map<String, Object>> body = new ArrayList<>();
+            synchronized (runs) {
+                for (JobRun run : runs.values()) {
+                    body.add(run.toMap());
+                }
+            }
+            respond(exchange, 200, body);
+        } else if ("GET".equals(method)) {
+            JobRun run = getRun(id);
+            if (run == null) {
+                respond(exchange, 404, Map.of("error", "unknown run " + id));
+            } else {
+                respond(exchange, 200, run.toMap());
+            }
+        } else {
+            respond(exchange, 405, Map.of("error", "method not allowed"));
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, Map.of("error", "method not allowed"));
+        } else if ("/metrics".equals(path)) {
+            List<Map<String, Object>> body = new ArrayList<>();
+            for (MetricsAggregator.Rollup rollup : aggregator.mergedRollups(System.currentTimeMillis()).values()) {
+                body.add(rollupToMap(rollup));
+            }
+            respond(exchange, 200, body);
+        } else if ("/metrics/details".equals(path)) {
+            String template = queryParam(exchange.getRequestURI().getRawQuery(), "template");
+            if (template == null) {
+                respond(exchange, 400, Map.of("error", "template is required"));
+                return;
+            }
+            List<Map<String, Object>> body = new ArrayList<>();
+            for (MetricsAggregator.JobDetail detail : aggregator.getRetainedDetails(template)) {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("jobName", detail.getJobName());
+                map.put("failed", detail.isFailed());
+                map.put("timestamp", detail.getTimestamp());
+                map.put("samples", detail.getSamples());
+                body.add(map);
+            }
+            respond(exchange, 200, body);
+        } else {
+            respond(exchange, 404, Map.of("error", "unknown path " + path));
+        }
+    }
+
+    private static Map<String, Object> rollupToMap(MetricsAggregator.Rollup rollup) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (Map.Entry<String, MetricsSketch> metric : rollup.getMetrics().entrySet()) {
+            MetricsSketch sketch = metric.getValue();
+            if (sketch.getCount() == 0) {
+                continue;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", sketch.getCount());
+            stats.put("min", sketch.getMin());
+            stats.put("p50", sketch.quantile(0.5));
+            stats.put("p90", sketch.quantile(0.9));
+            stats.put("p99", sketch.quantile(0.99));
+            stats.put("max", sketch.getMax());
+            metrics.put(metric.getKey(), stats);
+        }
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("template", rollup.getTemplate());
+        map.put("windowStart", rollup.getWindowStart());
+        map.put("windowEnd", rollup.getWindowEnd());
+        map.put("jobs", rollup.getJobs());
+        map.put("failedJobs", rollup.getFailedJobs());
+        map.put("metrics", metrics);
+        return map;
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String queryParam(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return pair.substring(eq + 1);
+            }
+        }
+        return null;
+    }
+
+    // Goes through the same HTTP, workflow and serialization paths as a real submission
+    private void warmUp() throws IOException, InterruptedException {
+        call("GET", "/health");
+        List<String> ids = new ArrayList<>();
+        for (String pattern : patterns.keySet()) {
+            ids.add((String) call("POST", "/jobs?pattern=" + pattern).get("id"));
+        }
+
+        long deadline = System.currentTimeMillis() + WARMUP_TIMEOUT_MILLIS;
+        for (String id : ids) {
+            Map<?, ?> run = call("GET", "/jobs/" + id);
+            while (!"SUCCEEDED".equals(run.get("state"))) {
+                if ("FAILED".equals(run.get("state")) || System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Warm-up run did not succeed: " + run);
+                }
+                Thread.sleep(50);
+                run = call("GET", "/jobs/" + id);
+            }
+        }
+        call("GET", "/metrics");
+        System.out.println("✅ Daemon warm-up completed (" + ids.size() + " dry-run submissions)");
+    }
+
+    private Map<?, ?> call(String method, String path) throws IOException {
+        URL url = new URL("http://127.0.0.1:" + getPort() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        try (InputStream in = connection.getInputStream()) {
+            return gson.fromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8), Map.class);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /** State of one submitted run. */
+    public static class JobRun {
+
+        public enum State { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+        private final String id;
+        private final String pattern;
+        private final long submittedAt = System.currentTimeMillis();
+        private volatile State state = State.QUEUED;
+        private volatile long finishedAt;
+        private volatile String error;
+        private volatile JobWorkflowExecutor.Result result;
+
+        JobRun(String id, String pattern) {
+            this.id = id;
+            this.pattern = pattern;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        boolean isFinished() {
+            return state == State.SUCCEEDED || state == State.FAILED;
+        }
+
+        void markRunning() {
+            state = State.RUNNING;
+        }
+
+        void markFinished(JobWorkflowExecutor.Result outcome, Exception failure) {
+            result = outcome;
+            if (failure != null) {
+                error = failure.getMessage();
+            } else if (!outcome.isSucceeded()) {
+                error = "Workflow did not complete successfully";
+            }
+            finishedAt = System.currentTimeMillis();
+            state = failure == null && outcome.isSucceeded() ? State.SUCCEEDED : State.FAILED;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", id);
+            map.put("pattern", pattern);
+            map.put("state", state.name());
+            map.put("submittedAt", submittedAt);
+            if (finishedAt > 0) {
+                map.put("finishedAt", finishedAt);
+            }
+            if (error != null) {
+                map.put("error", error);
+            }
+            if (result != null) {
+                map.put("nodes", result.getStates());
+                map.put("elapsedMillis", result.getElapsedMillis());
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.example;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming decoder for Job, JobList and Job watch payloads.
+ *
+ * Only metadata.{name,uid,resourceVersion,labels} and status are materialised;
+ * everything else (most notably spec.template) is skipped token by token, so
+ * no model objects are allocated for it.
+ */
+public final class JobStatusDecoder {
+
+    private JobStatusDecoder() {
+    }
+
+    /** A decoded JobList page. */
+    public static final class JobList {
+        private final List<JobStatusSnapshot> items;
+        private final String resourceVersion;
+        private final String continueToken;
+
+        JobList(List<JobStatusSnapshot> items, String resourceVersion, String continueToken) {
+            this.items = Collections.unmodifiableList(items);
+            this.resourceVersion = resourceVersion;
+            this.continueToken = continueToken;
+        }
+
+        public List<JobStatusSnapshot> getItems() {
+            return items;
+        }
+
+        public String getResourceVersion() {
+            return resourceVersion;
+        }
+
+        public String getContinueToken() {
+            return continueToken;
+        }
+    }
+
+    /** A single watch event: ADDED, MODIFIED, DELETED, BOOKMARK or ERROR. */
+    public static final class WatchEvent {
+        private final String type;
+        private final JobStatusSnapshot job;
+        private final Integer code;
+        private final String message;
+
+        WatchEvent(String type, JobStatusSnapshot job) {
+            this(type, job, null, null);
+        }
+
+        WatchEvent(String type, JobStatusSnapshot job, Integer code, String message) {
+            this.type = type;
+            this.job = job;
+            this.code = code;
+            this.message = message;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        /** The projected object; for ERROR events only metadata may be present. */
+        public JobStatusSnapshot getJob() {
+            return job;
+        }
+
+        /** HTTP code of the Status carried by an ERROR event (e.g. 410 Gone), otherwise null. */
+        public Integer getCode() {
+            return code;
+        }
+
+        /** Message of the Status carried by an ERROR event, otherwise null. */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /** Top-level {@code code} and {@code message} of a Status object, captured while projecting. */
+    private static final class StatusFields {
+        private Integer code;
+        private String message;
+    }
+
+    /** Decodes a single Job object. */
+    public static JobStatusSnapshot decodeJob(Reader in) throws IOException {
+        try (JsonReader reader = new JsonReader(in)) {
+            return readJob(reader);
+        }
+    }
+
+    /** Decodes a JobList page. */
+    public static JobList decodeList(Reader in) throws IOException {
+        try (JsonReader reader = new JsonReader(in)) {
+            List<JobStatusSnapshot> items = new ArrayList<>();
+            String resourceVersion = null;
+            String continueToken = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                if ("metadata".equals(field) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String metaField = reader.nextName();
+                        if ("resourceVersion".equals(metaField)) {
+                            resourceVersion = nextStringOrNull(reader);
+                        } else if ("continue".equals(metaField)) {
+                            continueToken = nextStringOrNull(reader);
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                } else if ("items".equals(field) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        items.add(readJob(reader));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (continueToken != null && continueToken.isEmpty()) {
+                continueToken = null;
+            }
+            return new JobList(items, resourceVersion, continueToken);
+        }
+    }
+
+    /**
+     * Returns a reader over a watch stream. The API server writes one event
+     * object per line; the reader is lenient so consecutive top-level values
+     * can be consumed with {@link #nextWatchEvent(JsonReader)}.
+     */
+    public static JsonReader watchReader(Reader in) {
+        JsonReader reader = new JsonReader(in);
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /** Reads the next watch event, or returns null at the end of the stream. */
+    public static WatchEvent nextWatchEvent(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.END_DOCUMENT) {
+            return null;
+        }
+
+        String type = null;
+        JobStatusSnapshot job = null;
+        StatusFields status = new StatusFields();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if ("type".equals(field)) {
+                type = nextStringOrNull(reader);
+            } else if ("object".equals(field) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                job = readJob(reader, status);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if ("ERROR".equals(type)) {
+            return new WatchEvent(type, job, status.code, status.message);
+        }
+        return new WatchEvent(type, job);
+    }
+
+    private static JobStatusSnapshot readJob(JsonReader reader) throws IOException {
+        return readJob(reader, null);
+    }
+
+    private static JobStatusSnapshot readJob(JsonReader reader, StatusFields statusFields) throws IOException {
+        String name = null;
+        String uid = null;
+        String resourceVersion = null;
+        Map<String, String> labels = null;
+        boolean hasStatus = false;
+        Integer active = null;
+        Integer succeeded = null;
+        Integer failed = null;
+        String startTime = null;
+        String completionTime = null;
+        Map<String, String> conditions = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if ("metadata".equals(field) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String metaField = reader.nextName();
+                    switch (metaField) {
+                        case "name":
+                            name = nextStringOrNull(reader);
+                            break;
+                        case "uid":
+                            uid = nextStringOrNull(reader);
+                            break;
+                        case "resourceVersion":
+                            resourceVersion = nextStringOrNull(reader);
+                            break;
+                        case "labels":
+                            labels = readStringMap(reader);
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else if ("status".equals(field) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                hasStatus = true;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String statusField = reader.nextName();
+                    switch (statusField) {
+                        case "active":
+                            active = nextIntOrNull(reader);
+                            break;
+                        case "succeeded":
+                            succeeded = nextIntOrNull(reader);
+                            break;
+                        case "failed":
+                            failed = nextIntOrNull(reader);
+                            break;
+                        case "startTime":
+                            startTime = nextStringOrNull(reader);
+                            break;
+                        case "completionTime":
+                            completionTime = nextStringOrNull(reader);
+                            break;
+                        case "conditions":
+                            conditions = readConditions(reader);
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else if (statusFields != null && "code".equals(field) && reader.peek() == JsonToken.NUMBER) {
+                statusFields.code = reader.nextInt();
+            } else if (statusFields != null && "message".equals(field) && reader.peek() == JsonToken.STRING) {
+                statusFields.message = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new JobStatusSnapshot(name, uid, resourceVersion, labels, hasStatus,
+                active, succeeded, failed, startTime, completionTime, conditions);
+    }
+
+    private static Map<String, String> readConditions(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+
+        Map<String, String> conditions = new LinkedHashMap<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String type = null;
+            String status = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                if ("type".equals(field)) {
+                    type = nextStringOrNull(reader);
+                } else if ("status".equals(field)) {
+                    status = nextStringOrNull(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (type != null) {
+                conditions.put(type, status);
+            }
+        }
+        reader.endArray();
+        return conditions;
+    }
+
+    private static Map<String, String> readStringMap(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        Map<String, String> map = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            map.put(reader.nextName(), nextStringOrNull(reader));
+        }
+        reader.endObject();
+        return map;
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static Integer nextIntOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextInt();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example;
+
+import com.google.gson.stream.JsonReader;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.BatchV1Api;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads Job status through {@link JobStatusDecoder} instead of the client's
+ * Gson model codec. Requests are built with the generated {@code *Call}
+ * methods of {@link BatchV1Api}, so auth and TLS setup are shared with the
+ * regular client; only response decoding differs.
+ *
+ * Metadata-only (PartialObjectMetadata) and Table responses are not used
+ * here because neither carries the Job status block.
+ */
+public class JobStatusReader {
+
+    private static final int LIST_PAGE_SIZE = 500;
+
+    private final BatchV1Api batchApi;
+
+    public JobStatusReader(BatchV1Api batchApi) {
+        this.batchApi = batchApi;
+    }
+
+    /**
+     * Reads a single Job. Uses the plain Job endpoint rather than the status
+     * subresource, which needs extra RBAC and returns the same object.
+     */
+    public JobStatusSnapshot readJob(String name, String namespace) throws ApiException {
+        Call call = batchApi.readNamespacedJobCall(name, namespace, null, null);
+        try (Response response = call.execute()) {
+            ResponseBody body = checkResponse(response);
+            return JobStatusDecoder.decodeJob(body.charStream());
+        } catch (IOException e) {
+            throw new ApiException(e);
+        }
+    }
+
+    /** Lists all Jobs matching the selector, following continue tokens page by page. */
+    public JobStatusDecoder.JobList listJobs(String namespace, String labelSelector) throws ApiException {
+        List<JobStatusSnapshot> items = new ArrayList<>();
+        String continueToken = null;
+        String resourceVersion;
+
+        do {
+            Call call = batchApi.listNamespacedJobCall(namespace, null, null, continueToken, null,
+                    labelSelector, LIST_PAGE_SIZE, null, null, null, null, null);
+            JobStatusDecoder.JobList page;
+            try (Response response = call.execute()) {
+                ResponseBody body = checkResponse(response);
+                page = JobStatusDecoder.decodeList(body.charStream());
+            } catch (IOException e) {
+                throw new ApiException(e);
+            }
+            items.addAll(page.getItems());
+            resourceVersion = page.getResourceVersion();
+            continueToken = page.getContinueToken();
+        } while (continueToken != null);
+
+        return new JobStatusDecoder.JobList(items, resourceVersion, null);
+    }
+
+    /**
+     * Watches Jobs matching the selector starting at {@code resourceVersion},
+     * passing each decoded event to {@code consumer}. Blocks until the server
+     * closes the stream (after {@code timeoutSeconds}) or the call handed to
+     * {@code onCall} is cancelled; interrupting the thread does not unblock a
+     * read in progress. Returns the last resourceVersion seen, for resuming.
+     * An ERROR event is thrown as an {@link ApiException} whose code is the
+     * event's Status code, e.g. 410 when {@code resourceVersion} has expired.
+     */
+    public String watchJobs(String namespace, String labelSelector, String resourceVersion,
+                            int timeoutSeconds, Consumer<Call> onCall,
+                            Consumer<JobStatusDecoder.WatchEvent> consumer) throws ApiException {
+        Call call = batchApi.listNamespacedJobCall(namespace, null, true, null, null,
+                labelSelector, null, resourceVersion, null, timeoutSeconds, true, null);
+
+        // The shared client has a 30s read timeout; a watch may idle longer than that
+        OkHttpClient watchClient = batchApi.getApiClient().getHttpClient().newBuilder()
+                .readTimeout(0, TimeUnit.MILLISECONDS)
+                .build();
+
+        Call watchCall = watchClient.newCall(call.request());
+        onCall.accept(watchCall);
+
+        String lastResourceVersion = resourceVersion;
+        try (Response response = watchCall.execute()) {
+            ResponseBody body = checkResponse(response);
+            JsonReader reader = JobStatusDecoder.watchReader(body.charStream());
+            JobStatusDecoder.WatchEvent event;
+            while (!Thread.currentThread().isInterrupted()
+                    && (event = JobStatusDecoder.nextWatchEvent(reader)) != null) {
+                if ("ERROR".equals(event.getType())) {
+                    // Carry the Status code so callers can tell 410 Gone from other failures
+                    int code = event.getCode() != null ? event.getCode() : 0;
+                    String message = event.getMessage() != null ? event.getMessage()
+                            : "Watch error event for namespace " + namespace;
+                    throw new ApiException(message, code, null, null);
+                }
+                if (event.getJob() != null && event.getJob().getResourceVersion() != null) {
+                    lastResourceVersion = event.getJob().getResourceVersion();
+                }
+                if (!"BOOKMARK".equals(event.getType())) {
+                    consumer.accept(event);
+                }
+            }
+        } catch (IOException e) {
+            throw new ApiException(e);
+        }
+        return lastResourceVersion;
+    }
+
+    /**
+     * Deletes a Job and its pods in the background. The response body is
+     * discarded: with a propagation policy the server may answer with the Job
+     * rather than a Status, which the generated delete method fails to decode.
+     */
+    public void deleteJob(String name, String namespace) throws ApiException {
+        Call call = batchApi.deleteNamespacedJobCall(name, namespace, null, null, null, null,
+                "Background", null, null);
+        try (Response response = call.execute()) {
+            checkResponse(response);
+        } catch (IOException e) {
+            throw new ApiException(e);
+        }
+    }
+
+    private static ResponseBody checkResponse(Response response) throws ApiException, IOException {
+        ResponseBody body = response.body();
+        if (!response.isSuccessful() || body == null) {
+            String responseBody = body != null ? body.string() : null;
+            throw new ApiException(response.message(), response.code(),
+                    response.headers().toMultimap(), responseBody);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Projection of a batch/v1 Job holding only the fields the monitor reads:
+ * metadata.{name,uid,resourceVersion,labels} and status. Produced by
+ * {@link JobStatusDecoder} instead of a full {@code V1Job}.
+ */
+public class JobStatusSnapshot {
+
+    private final String name;
+    private final String uid;
+    private final String resourceVersion;
+    private final Map<String, String> labels;
+    private final boolean hasStatus;
+    private final Integer active;
+    private final Integer succeeded;
+    private final Integer failed;
+    private final String startTime;
+    private final String completionTime;
+    private final Map<String, String> conditions;
+
+    JobStatusSnapshot(String name, String uid, String resourceVersion, Map<String, String> labels,
+                      boolean hasStatus, Integer active, Integer succeeded, Integer failed,
+                      String startTime, String completionTime, Map<String, String> conditions) {
+        this.name = name;
+        this.uid = uid;
+        this.resourceVersion = resourceVersion;
+        this.labels = labels != null ? Collections.unmodifiableMap(labels) : Collections.emptyMap();
+        this.hasStatus = hasStatus;
+        this.active = active;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.startTime = startTime;
+        this.completionTime = completionTime;
+        this.conditions = conditions != null ? Collections.unmodifiableMap(conditions) : Collections.emptyMap();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    public String getResourceVersion() {
+        return resourceVersion;
+    }
+
+    public Map<String, String> getLabels() {
+        return labels;
+    }
+
+    /** Whether the payload carried a non-null status object. */
+    public boolean hasStatus() {
+        return hasStatus;
+    }
+
+    public Integer getActive() {
+        return active;
+    }
+
+    public Integer getSucceeded() {
+        return succeeded;
+    }
+
+    public Integer getFailed() {
+        return failed;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public String getCompletionTime() {
+        return completionTime;
+    }
+
+    /** Condition type to condition status, e.g. {@code Complete -> True}. */
+    public Map<String, String> getConditions() {
+        return conditions;
+    }
+
+    /** True once the Job controller has set the {@code Complete} condition. */
+    public boolean isComplete() {
+        return "True".equals(conditions.get("Complete"));
+    }
+
+    /** True once the Job controller has set the {@code Failed} condition. */
+    public boolean isFailed() {
+        return "True".equals(conditions.get("Failed"));
+    }
+
+    @Override
+    public String toString() {
+        return "JobStatusSnapshot{name=" + name
+                + ", resourceVersion=" + resourceVersion
+                + ", active=" + active
+                + ", succeeded=" + succeeded
+                + ", failed=" + failed
+                + ", conditions=" + conditions + "}";
+    }
+}
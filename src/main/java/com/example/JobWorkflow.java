@@ -0,0 +1,164 @@
+package com.example;
+
+import io.kubernetes.client.openapi.models.V1Job;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A DAG of Job templates. Each node names the nodes it depends on; a node is
+ * launched by {@link JobWorkflowExecutor} as soon as all of them succeed.
+ *
+ * Background nodes are Jobs that never complete on their own (for example a
+ * pod with a long-running collector sidecar). They run for a fixed window and
+ * are then deleted; nothing may depend on them.
+ */
+public class JobWorkflow {
+
+    /** One node of the workflow. */
+    public static final class Node {
+        private final String id;
+        private final Supplier<V1Job> template;
+        private final List<String> dependsOn;
+        private final Long runMillis;
+
+        Node(String id, Supplier<V1Job> template, List<String> dependsOn, Long runMillis) {
+            this.id = id;
+            this.template = template;
+            this.dependsOn = Collections.unmodifiableList(dependsOn);
+            this.runMillis = runMillis;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Supplier<V1Job> getTemplate() {
+            return template;
+        }
+
+        public List<String> getDependsOn() {
+            return dependsOn;
+        }
+
+        public boolean isBackground() {
+            return runMillis != null;
+        }
+
+        /** How long a background node runs before it is stopped; null for regular nodes. */
+        public Long getRunMillis() {
+            return runMillis;
+        }
+    }
+
+    private final String name;
+    private final int maxConcurrency;
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+    public JobWorkflow(String name, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Adds a node. Dependencies must already have been added, which also
+     * guarantees the graph stays acyclic.
+     */
+    public JobWorkflow addJob(String id, Supplier<V1Job> template, String... dependsOn) {
+        return add(id, template, null, dependsOn);
+    }
+
+    /**
+     * Adds a background node: it is launched like any other node, stopped
+     * after {@code runMillis} and then counts as finished without failing
+     * the workflow. It only fails if its Job reports failure before that.
+     */
+    public JobWorkflow addBackgroundJob(String id, Supplier<V1Job> template, long runMillis, String... dependsOn) {
+        if (runMillis <= 0) {
+            throw new IllegalArgumentException("runMillis must be positive");
+        }
+        return add(id, template, runMillis, dependsOn);
+    }
+
+    private JobWorkflow add(String id, Supplier<V1Job> template, Long runMillis, String... dependsOn) {
+        if (nodes.containsKey(id)) {
+            throw new IllegalArgumentException("Duplicate workflow node: " + id);
+        }
+        for (String dependency : dependsOn) {
+            Node upstream = nodes.get(dependency);
+            if (upstream == null) {
+                throw new IllegalArgumentException("Node " + id + " depends on unknown node " + dependency);
+            }
+            if (upstream.isBackground()) {
+                throw new IllegalArgumentException("Node " + id + " cannot depend on background node " + dependency);
+            }
+        }
+        nodes.put(id, new Node(id, template, new ArrayList<>(Arrays.asList(dependsOn)), runMillis));
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public Map<String, Node> getNodes() {
+        return Collections.unmodifiableMap(nodes);
+    }
+
+    /** Nodes that depend directly on each node. */
+    Map<String, List<String>> dependents() {
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (Node node : nodes.values()) {
+            dependents.putIfAbsent(node.id, new ArrayList<>());
+            for (String dependency : node.dependsOn) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(node.id);
+            }
+        }
+        return dependents;
+    }
+
+    /**
+     * Returns the chain of nodes that determined the workflow's end time:
+     * starting from the node that finished last, repeatedly step to the
+     * dependency that finished last (the one that gated its launch).
+     */
+    List<String> criticalPath(Map<String, Long> finishedAt) {
+        // Nodes are added after their dependencies, so on a tie the later one is downstream
+        String current = null;
+        for (String id : nodes.keySet()) {
+            Long finished = finishedAt.get(id);
+            if (finished != null && (current == null || finished >= finishedAt.get(current))) {
+                current = id;
+            }
+        }
+
+        Deque<String> path = new ArrayDeque<>();
+        while (current != null) {
+            path.addFirst(current);
+            String gating = null;
+            for (String dependency : nodes.get(current).dependsOn) {
+                Long finished = finishedAt.get(dependency);
+                if (finished != null && (gating == null || finished > finishedAt.get(gating))) {
+                    gating = dependency;
+                }
+            }
+            current = gating;
+        }
+        return new ArrayList<>(path);
+    }
+}
@@ -0,0 +1,506 @@
+package com.example;
+
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.BatchV1Api;
+import io.kubernetes.client.openapi.models.V1Job;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import okhttp3.Call;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs a {@link JobWorkflow} against the cluster. Every Job of a run carries
+ * a {@code workflow-run} label; a single watch on that selector feeds
+ * completion events back, and downstream nodes are created as soon as their
+ * last dependency succeeds. Independent branches run in parallel up to the
+ * workflow's concurrency cap; descendants of a failed node are skipped.
+ *
+ * Background nodes are deleted once their run window expires and end up
+ * STOPPED. Jobs still running when the workflow times out, is interrupted or
+ * throws are deleted too and reported as TIMED_OUT, so a run never leaves
+ * Jobs behind.
+ */
+public class JobWorkflowExecutor {
+
+    static final String RUN_LABEL = "workflow-run";
+    static final String NODE_LABEL = "workflow-node";
+    private static final int WATCH_TIMEOUT_SECONDS = 30;
+    // Keeps run ids unique when the daemon starts several runs in the same millisecond
+    private static final AtomicLong RUN_SEQUENCE = new AtomicLong();
+
+    public enum NodeState { PENDING, RUNNING, SUCCEEDED, FAILED, SKIPPED, STOPPED, TIMED_OUT }
+
+    /** Creates and deletes the Jobs of a run. */
+    interface JobLauncher {
+        /** Creates the Job and returns its name. */
+        String create(V1Job job) throws ApiException;
+
+        void delete(String jobName) throws ApiException;
+    }
+
+    /** Opens a stream of Job events for the Jobs matching a label selector. */
+    interface EventSource {
+        Events open(String selector) throws ApiException;
+    }
+
+    /** Job events of one run; closed when the run ends. */
+    interface Events extends AutoCloseable {
+        /** Returns the next event, or null if none arrived within the timeout. */
+        JobStatusDecoder.WatchEvent poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+        @Override
+        void close();
+    }
+
+    /** Outcome of one workflow run. */
+    public static final class Result {
+        private final Map<String, NodeState> states;
+        private final Map<String, Long> durations;
+        private final List<String> criticalPath;
+        private final long elapsedMillis;
+
+        Result(Map<String, NodeState> states, Map<String, Long> durations,
+               List<String> criticalPath, long elapsedMillis) {
+            this.states = Collections.unmodifiableMap(states);
+            this.durations = Collections.unmodifiableMap(durations);
+            this.criticalPath = Collections.unmodifiableList(criticalPath);
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public Map<String, NodeState> getStates() {
+            return states;
+        }
+
+        /** Creation-to-completion time of each finished node, in milliseconds. */
+        public Map<String, Long> getDurations() {
+            return durations;
+        }
+
+        public List<String> getCriticalPath() {
+            return criticalPath;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /** True if every node succeeded; background nodes may also have been stopped. */
+        public boolean isSucceeded() {
+            return states.values().stream()
+                    .allMatch(state -> state == NodeState.SUCCEEDED || state == NodeState.STOPPED);
+        }
+    }
+
+    private final EventSource eventSource;
+    private final JobLauncher launcher;
+    private final LongSupplier clock;
+    private BiConsumer<JobStatusSnapshot, Boolean> nodeListener = (job, failed) -> { };
+
+    public JobWorkflowExecutor(BatchV1Api batchApi, String namespace) {
+        this(new ClusterEventSource(new JobStatusReader(batchApi), namespace),
+                new ClusterJobLauncher(batchApi, namespace));
+    }
+
+    JobWorkflowExecutor(EventSource eventSource, JobLauncher launcher) {
+        this(eventSource, launcher, System::currentTimeMillis);
+    }
+
+    JobWorkflowExecutor(EventSource eventSource, JobLauncher launcher, LongSupplier clock) {
+        this.eventSource = eventSource;
+        this.launcher = launcher;
+        this.clock = clock;
+    }
+
+    /**
+     * Registers a callback invoked with each finished Job and whether it failed.
+     * It runs on the coordinating thread after downstream nodes are launched;
+     * for a background node it runs just before the Job is deleted.
+     */
+    public JobWorkflowExecutor onNodeFinished(BiConsumer<JobStatusSnapshot, Boolean> listener) {
+        this.nodeListener = listener;
+        return this;
+    }
+
+    @WithSpan("workflow.executor.execute")
+    public Result execute(JobWorkflow workflow, long timeoutMillis) throws ApiException, InterruptedException {
+        Span span = Span.current();
+        span.setAttribute("workflow.name", workflow.getName());
+        span.setAttribute("workflow.nodes", workflow.getNodes().size());
+        span.setAttribute("workflow.max_concurrency", workflow.getMaxConcurrency());
+
+        long startedAtMillis = clock.getAsLong();
+        String runId = startedAtMillis + "-" + RUN_SEQUENCE.incrementAndGet();
+
+        Map<String, List<String>> dependents = workflow.dependents();
+        Map<String, NodeState> states = new LinkedHashMap<>();
+        Map<String, Integer> pendingDependencies = new HashMap<>();
+        Map<String, Long> startedAt = new HashMap<>();
+        Map<String, Long> finishedAt = new HashMap<>();
+        Map<String, String> jobNames = new HashMap<>();
+        Map<String, JobStatusSnapshot> lastSeen = new HashMap<>();
+        Map<String, Long> stopAt = new HashMap<>();
+        Deque<String> ready = new ArrayDeque<>();
+
+        for (JobWorkflow.Node node : workflow.getNodes().values()) {
+            states.put(node.getId(), NodeState.PENDING);
+            pendingDependencies.put(node.getId(), node.getDependsOn().size());
+            if (node.getDependsOn().isEmpty()) {
+                ready.add(node.getId());
+            }
+        }
+
+        boolean reachedEnd = false;
+        // Start watching before anything is created so no event is missed
+        try (Events events = eventSource.open(RUN_LABEL + "=" + runId)) {
+            int running = launchReady(workflow, runId, ready, states, startedAt, jobNames, stopAt, dependents, 0);
+            long deadline = startedAtMillis + timeoutMillis;
+
+            while (running > 0) {
+                long now = clock.getAsLong();
+                int stopped = stopExpiredBackgroundNodes(now, stopAt, states, jobNames, lastSeen,
+                        startedAt, finishedAt);
+                if (stopped > 0) {
+                    // Stopped background nodes free slots for nodes still waiting
+                    running = launchReady(workflow, runId, ready, states, startedAt, jobNames, stopAt,
+                            dependents, running - stopped);
+                    if (running == 0) {
+                        break;
+                    }
+                }
+
+                if (deadline - now <= 0) {
+                    span.addEvent("Workflow timeout");
+                    System.out.println("⏰ Workflow timeout reached");
+                    break;
+                }
+                long wakeUp = deadline;
+                for (long stop : stopAt.values()) {
+                    wakeUp = Math.min(wakeUp, stop);
+                }
+
+                JobStatusDecoder.WatchEvent event = events.poll(Math.max(1, wakeUp - now), TimeUnit.MILLISECONDS);
+                if (event == null || event.getJob() == null || event.getJob().getLabels() == null) {
+                    continue;
+                }
+
+                String nodeId = event.getJob().getLabels().get(NODE_LABEL);
+                if (nodeId == null || states.get(nodeId) != NodeState.RUNNING) {
+                    continue;
+                }
+
+                JobStatusSnapshot job = event.getJob();
+                lastSeen.put(nodeId, job);
+                boolean succeeded = job.isComplete() || (job.getSucceeded() != null && job.getSucceeded() > 0);
+                boolean failed = job.isFailed() || "DELETED".equals(event.getType());
+                if (!succeeded && !failed) {
+                    continue;
+                }
+
+                running--;
+                stopAt.remove(nodeId);
+                finishedAt.put(nodeId, clock.getAsLong());
+                long seconds = (finishedAt.get(nodeId) - startedAt.get(nodeId)) / 1000;
+
+                if (succeeded) {
+                    states.put(nodeId, NodeState.SUCCEEDED);
+                    span.addEvent("Workflow node succeeded: " + nodeId);
+                    System.out.println("✅ Workflow node " + nodeId + " succeeded (" + seconds + "s)");
+                    for (String dependent : dependents.get(nodeId)) {
+                        if (pendingDependencies.merge(dependent, -1, Integer::sum) == 0
+                                && states.get(dependent) == NodeState.PENDING) {
+                            ready.add(dependent);
+                        }
+                    }
+                } else {
+                    states.put(nodeId, NodeState.FAILED);
+                    span.addEvent("Workflow node failed: " + nodeId);
+                    System.out.println("❌ Workflow node " + nodeId + " failed (" + seconds + "s)");
+                    skipDescendants(nodeId, dependents, states);
+                }
+
+                running = launchReady(workflow, runId, ready, states, startedAt, jobNames, stopAt,
+                        dependents, running);
+                nodeListener.accept(job, !succeeded);
+            }
+            reachedEnd = true;
+        } finally {
+            // Also runs when the run is interrupted or throws, so no Job is left behind
+            deleteRunningNodes(states, jobNames, reachedEnd, span);
+        }
+
+        // Anything still waiting at this point was never launched
+        for (Map.Entry<String, NodeState> entry : states.entrySet()) {
+            if (entry.getValue() == NodeState.PENDING) {
+                entry.setValue(NodeState.SKIPPED);
+            }
+        }
+
+        Map<String, Long> durations = new LinkedHashMap<>();
+        for (String nodeId : states.keySet()) {
+            if (finishedAt.containsKey(nodeId)) {
+                durations.put(nodeId, finishedAt.get(nodeId) - startedAt.get(nodeId));
+            }
+        }
+
+        Result result = new Result(states, durations, workflow.criticalPath(finishedAt),
+                clock.getAsLong() - startedAtMillis);
+        span.setAttribute("workflow.critical_path", String.join(" -> ", result.getCriticalPath()));
+        span.setAttribute("workflow.elapsed_ms", result.getElapsedMillis());
+        if (result.isSucceeded()) {
+            span.setStatus(StatusCode.OK);
+        } else {
+            span.setStatus(StatusCode.ERROR, "Workflow did not complete successfully");
+        }
+        return result;
+    }
+
+    private int launchReady(JobWorkflow workflow, String runId, Deque<String> ready,
+                            Map<String, NodeState> states, Map<String, Long> startedAt,
+                            Map<String, String> jobNames, Map<String, Long> stopAt,
+                            Map<String, List<String>> dependents, int running) {
+        while (running < workflow.getMaxConcurrency() && !ready.isEmpty()) {
+            String nodeId = ready.poll();
+            JobWorkflow.Node node = workflow.getNodes().get(nodeId);
+            try {
+                V1Job job = node.getTemplate().get();
+                V1ObjectMeta metadata = job.getMetadata() != null ? job.getMetadata() : new V1ObjectMeta();
+                Map<String, String> labels = new HashMap<>();
+                if (metadata.getLabels() != null) {
+                    labels.putAll(metadata.getLabels());
+                }
+                labels.put(RUN_LABEL, runId);
+                labels.put(NODE_LABEL, nodeId);
+                job.metadata(metadata.labels(labels));
+
+                String jobName = launcher.create(job);
+                long now = clock.getAsLong();
+                jobNames.put(nodeId, jobName);
+                startedAt.put(nodeId, now);
+                if (node.isBackground()) {
+                    stopAt.put(nodeId, now + node.getRunMillis());
+                }
+                states.put(nodeId, NodeState.RUNNING);
+                running++;
+                System.out.println("🚀 Launched workflow node " + nodeId + ": " + jobName);
+
+            } catch (ApiException e) {
+                states.put(nodeId, NodeState.FAILED);
+                System.err.println("❌ Failed to create job for workflow node " + nodeId + ": " + e.getMessage());
+                if (e.getResponseBody() != null) {
+                    System.err.println("Response: " + e.getResponseBody());
+                }
+                skipDescendants(nodeId, dependents, states);
+            } catch (RuntimeException e) {
+                // A broken template fails its own node, not the whole run
+                states.put(nodeId, NodeState.FAILED);
+                System.err.println("❌ Failed to build job for workflow node " + nodeId + ": " + e);
+                skipDescendants(nodeId, dependents, states);
+            }
+        }
+        return running;
+    }
+
+    // Returns how many background nodes were stopped
+    private int stopExpiredBackgroundNodes(long now, Map<String, Long> stopAt, Map<String, NodeState> states,
+                                           Map<String, String> jobNames, Map<String, JobStatusSnapshot> lastSeen,
+                                           Map<String, Long> startedAt, Map<String, Long> finishedAt) {
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : stopAt.entrySet()) {
+            if (entry.getValue() <= now) {
+                expired.add(entry.getKey());
+            }
+        }
+
+        for (String nodeId : expired) {
+            stopAt.remove(nodeId);
+            states.put(nodeId, NodeState.STOPPED);
+            finishedAt.put(nodeId, now);
+            String jobName = jobNames.get(nodeId);
+            System.out.println("🛑 Workflow node " + nodeId + " ran for "
+                    + (now - startedAt.get(nodeId)) / 1000 + "s, stopping Job " + jobName);
+
+            // Let listeners read pod logs before the pods go away
+            JobStatusSnapshot job = lastSeen.get(nodeId);
+            if (job == null) {
+                job = new JobStatusSnapshot(jobName, null, null, null, false,
+                        null, null, null, null, null, null);
+            }
+            nodeListener.accept(job, false);
+            deleteQuietly(nodeId, jobName);
+        }
+        return expired.size();
+    }
+
+    // Marks nodes still running as TIMED_OUT and deletes their Jobs
+    private void deleteRunningNodes(Map<String, NodeState> states, Map<String, String> jobNames,
+                                    boolean reachedEnd, Span span) {
+        // OkHttp fails calls made on an interrupted thread; restore the flag once the deletes are done
+        boolean interrupted = Thread.interrupted();
+        try {
+            for (Map.Entry<String, NodeState> entry : states.entrySet()) {
+                if (entry.getValue() != NodeState.RUNNING) {
+                    continue;
+                }
+                entry.setValue(NodeState.TIMED_OUT);
+                String jobName = jobNames.get(entry.getKey());
+                if (reachedEnd) {
+                    span.addEvent("Workflow node timed out: " + entry.getKey());
+                    System.out.println("⏰ Workflow node " + entry.getKey() + " timed out, deleting Job " + jobName);
+                } else {
+                    System.out.println("🛑 Workflow run aborted, deleting Job " + jobName
+                            + " of workflow node " + entry.getKey());
+                }
+                deleteQuietly(entry.getKey(), jobName);
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void deleteQuietly(String nodeId, String jobName) {
+        try {
+            launcher.delete(jobName);
+        } catch (ApiException | RuntimeException e) {
+            System.err.println("⚠️  Could not delete Job " + jobName + " of workflow node " + nodeId
+                    + ": " + e.getMessage());
+        }
+    }
+
+    private void skipDescendants(String nodeId, Map<String, List<String>> dependents,
+                                 Map<String, NodeState> states) {
+        Deque<String> queue = new ArrayDeque<>(dependents.get(nodeId));
+        while (!queue.isEmpty()) {
+            String dependent = queue.poll();
+            if (states.get(dependent) == NodeState.PENDING) {
+                states.put(dependent, NodeState.SKIPPED);
+                System.out.println("⏭  Skipping workflow node " + dependent + " (upstream " + nodeId + " failed)");
+                queue.addAll(dependents.get(dependent));
+            }
+        }
+    }
+
+    /** Creates Jobs through the batch API and deletes them with background propagation. */
+    private static final class ClusterJobLauncher implements JobLauncher {
+        private final BatchV1Api batchApi;
+        private final JobStatusReader statusReader;
+        private final String namespace;
+
+        ClusterJobLauncher(BatchV1Api batchApi, String namespace) {
+            this.batchApi = batchApi;
+            this.statusReader = new JobStatusReader(batchApi);
+            this.namespace = namespace;
+        }
+
+        @Override
+        public String create(V1Job job) throws ApiException {
+            return batchApi.createNamespacedJob(namespace, job, null, null, null, null).getMetadata().getName();
+        }
+
+        @Override
+        public void delete(String jobName) throws ApiException {
+            statusReader.deleteJob(jobName, namespace);
+        }
+    }
+
+    /** Feeds watch events from a background thread; one thread per opened run. */
+    private static final class ClusterEventSource implements EventSource {
+        private final JobStatusReader statusReader;
+        private final String namespace;
+
+        ClusterEventSource(JobStatusReader statusReader, String namespace) {
+            this.statusReader = statusReader;
+            this.namespace = namespace;
+        }
+
+        @Override
+        public Events open(String selector) throws ApiException {
+            // Start watching from the current resourceVersion before anything is created
+            String resourceVersion = statusReader.listJobs(namespace, selector).getResourceVersion();
+            BlockingQueue<JobStatusDecoder.WatchEvent> events = new LinkedBlockingQueue<>();
+            AtomicBoolean done = new AtomicBoolean(false);
+            AtomicReference<Call> activeCall = new AtomicReference<>();
+            Thread watcher = new Thread(() -> watchLoop(selector, resourceVersion, events, done, activeCall),
+                    "workflow-watch-" + selector);
+            watcher.setDaemon(true);
+            watcher.start();
+
+            return new Events() {
+                @Override
+                public JobStatusDecoder.WatchEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+                    return events.poll(timeout, unit);
+                }
+
+                @Override
+                public void close() {
+                    done.set(true);
+                    // Interrupting alone would leave the thread blocked in the socket read
+                    Call call = activeCall.get();
+                    if (call != null) {
+                        call.cancel();
+                    }
+                    watcher.interrupt();
+                }
+            };
+        }
+
+        private void watchLoop(String selector, String resourceVersion,
+                               BlockingQueue<JobStatusDecoder.WatchEvent> events, AtomicBoolean done,
+                               AtomicReference<Call> activeCall) {
+            String lastResourceVersion = resourceVersion;
+            while (!done.get()) {
+                try {
+                    lastResourceVersion = statusReader.watchJobs(namespace, selector, lastResourceVersion,
+                            WATCH_TIMEOUT_SECONDS, call -> {
+                                activeCall.set(call);
+                                // close() may have run before this call existed
+                                if (done.get()) {
+                                    call.cancel();
+                                }
+                            }, events::add);
+                } catch (ApiException e) {
+                    if (done.get()) {
+                        return;
+                    }
+                    System.err.println("⚠️  Workflow watch interrupted: " + e.getMessage());
+                    try {
+                        Thread.sleep(1000);
+                        if (e.getCode() != 410) {
+                            // Dropped stream: resume from the last resourceVersion seen
+                            continue;
+                        }
+                        // Expired resourceVersion: relist and replay current state
+                        JobStatusDecoder.JobList list = statusReader.listJobs(namespace, selector);
+                        for (JobStatusSnapshot job : list.getItems()) {
+                            events.add(new JobStatusDecoder.WatchEvent("MODIFIED", job));
+                        }
+                        lastResourceVersion = list.getResourceVersion();
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    } catch (ApiException relistError) {
+                        System.err.println("⚠️  Workflow relist failed: " + relistError.getMessage());
+                    }
+                }
+            }
+        }
+    }
+}
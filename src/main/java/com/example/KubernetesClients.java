@@ -0,0 +1,62 @@
+package com.example;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.Configuration;
+import io.kubernetes.client.openapi.apis.BatchV1Api;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.util.Config;
+
+import java.io.IOException;
+
+/**
+ * Process-wide Kubernetes client. Kubeconfig parsing, TLS setup and the
+ * OkHttp connection pool are paid once and shared by every job creator,
+ * which matters when the monitor runs as a long-lived daemon.
+ */
+public final class KubernetesClients {
+
+    private static volatile ApiClient apiClient;
+
+    private KubernetesClients() {
+    }
+
+    public static BatchV1Api batchApi() {
+        return new BatchV1Api(apiClient());
+    }
+
+    public static CoreV1Api coreApi() {
+        return new CoreV1Api(apiClient());
+    }
+
+    private static ApiClient apiClient() {
+        ApiClient client = apiClient;
+        if (client == null) {
+            synchronized (KubernetesClients.class) {
+                client = apiClient;
+                if (client == null) {
+                    client = createApiClient();
+                    apiClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private static ApiClient createApiClient() {
+        try {
+            ApiClient client = Config.defaultClient();
+            Configuration.setDefaultApiClient(client);
+
+            client.setConnectTimeout(30000);
+            client.setReadTimeout(30000);
+            client.setWriteTimeout(30000);
+
+            System.out.println("Kubernetes client configured successfully");
+            return client;
+
+        } catch (IOException e) {
+            System.err.println("Failed to configure Kubernetes client: " + e.getMessage());
+            throw new RuntimeException("Kubernetes client configuration failed", e);
+        }
+    }
+}
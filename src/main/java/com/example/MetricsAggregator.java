@@ -0,0 +1,287 @@
+package com.example;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Folds per-job metric samples into per-template aggregates so the backend
+ * receives one series per (template, metric) instead of one per pod.
+ *
+ * Exported samples go into a histogram keyed by template and metric, which
+ * {@link TelemetryBootstrap} aggregates as a base-2 exponential histogram, so
+ * the backend can merge distributions across windows and instances. Locally,
+ * samples are also folded into time-windowed {@link Rollup}s holding a
+ * {@link MetricsSketch} per metric; closed rollups are kept for
+ * {@link #HISTORY_WINDOWS} windows and merged on demand.
+ *
+ * Raw per-job samples are kept only as the {@link DetailRetention} policy
+ * allows, bounded per template.
+ */
+public class MetricsAggregator {
+
+    static final AttributeKey<String> TEMPLATE_KEY = AttributeKey.stringKey("job.template");
+    static final AttributeKey<String> METRIC_KEY = AttributeKey.stringKey("metric");
+    static final AttributeKey<String> OUTCOME_KEY = AttributeKey.stringKey("outcome");
+
+    static final String METRIC_HISTOGRAM = "job.template.metric";
+    static final long DEFAULT_WINDOW_MILLIS = 60 * 1000;
+    static final int DEFAULT_DETAILS_PER_TEMPLATE = 20;
+    /** Closed windows kept per template; older rollups expire. */
+    static final int HISTORY_WINDOWS = 15;
+
+    /** Which jobs keep their raw samples after being folded into a rollup. */
+    public enum DetailRetention { NONE, FAILED_ONLY, ALL }
+
+    /** Raw samples of a single job, kept per the retention policy. */
+    public static final class JobDetail {
+        private final String jobName;
+        private final boolean failed;
+        private final long timestamp;
+        private final Map<String, List<Double>> samples;
+
+        JobDetail(String jobName, boolean failed, long timestamp, Map<String, List<Double>> samples) {
+            this.jobName = jobName;
+            this.failed = failed;
+            this.timestamp = timestamp;
+            this.samples = samples;
+        }
+
+        public String getJobName() {
+            return jobName;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public Map<String, List<Double>> getSamples() {
+            return samples;
+        }
+    }
+
+    /** Aggregate of all jobs of one template that finished within one window. */
+    public static final class Rollup {
+        private final String template;
+        private final long windowStart;
+        private final long windowEnd;
+        private final Map<String, MetricsSketch> metrics = new TreeMap<>();
+        private int jobs;
+        private int failedJobs;
+
+        Rollup(String template, long windowStart, long windowEnd) {
+            this.template = template;
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+
+        public long getWindowStart() {
+            return windowStart;
+        }
+
+        public long getWindowEnd() {
+            return windowEnd;
+        }
+
+        public Map<String, MetricsSketch> getMetrics() {
+            return Collections.unmodifiableMap(metrics);
+        }
+
+        public int getJobs() {
+            return jobs;
+        }
+
+        public int getFailedJobs() {
+            return failedJobs;
+        }
+
+        private void add(Rollup other) {
+            jobs += other.jobs;
+            failedJobs += other.failedJobs;
+            for (Map.Entry<String, MetricsSketch> metric : other.metrics.entrySet()) {
+                metrics.computeIfAbsent(metric.getKey(), key -> new MetricsSketch()).merge(metric.getValue());
+            }
+        }
+    }
+
+    private final long windowMillis;
+    private final DetailRetention retention;
+    private final int maxDetailsPerTemplate;
+
+    // windowStart -> template -> rollup, ordered so closed windows flush first
+    private final TreeMap<Long, Map<String, Rollup>> openWindows = new TreeMap<>();
+    // template -> windowStart -> closed rollup
+    private final Map<String, TreeMap<Long, Rollup>> closedWindows = new LinkedHashMap<>();
+    private final Map<String, Deque<JobDetail>> details = new HashMap<>();
+
+    private volatile DoubleHistogram metricHistogram;
+    private volatile LongCounter jobCounter;
+
+    public MetricsAggregator(long windowMillis, DetailRetention retention, int maxDetailsPerTemplate) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        this.windowMillis = windowMillis;
+        this.retention = retention;
+        this.maxDetailsPerTemplate = maxDetailsPerTemplate;
+    }
+
+    /**
+     * Folds the samples of one finished job into the window containing
+     * {@code timestamp}. Windows that ended by then are closed first, so
+     * memory stays bounded even if no one reads the rollups.
+     */
+    public synchronized void record(String template, String jobName, boolean failed,
+                                    Map<String, List<Double>> samples, long timestamp) {
+        flush(timestamp);
+        long windowStart = timestamp - Math.floorMod(timestamp, windowMillis);
+        Rollup rollup = openWindows
+                .computeIfAbsent(windowStart, key -> new LinkedHashMap<>())
+                .computeIfAbsent(template, key -> new Rollup(template, windowStart, windowStart + windowMillis));
+
+        rollup.jobs++;
+        if (failed) {
+            rollup.failedJobs++;
+        }
+        for (Map.Entry<String, List<Double>> metric : samples.entrySet()) {
+            MetricsSketch sketch = rollup.metrics.computeIfAbsent(metric.getKey(), key -> new MetricsSketch());
+            for (Double value : metric.getValue()) {
+                sketch.add(value);
+            }
+        }
+
+        DoubleHistogram histogram = metricHistogram;
+        if (histogram != null) {
+            for (Map.Entry<String, List<Double>> metric : samples.entrySet()) {
+                Attributes attributes = Attributes.of(TEMPLATE_KEY, template, METRIC_KEY, metric.getKey());
+                for (Double value : metric.getValue()) {
+                    histogram.record(value, attributes);
+                }
+            }
+            jobCounter.add(1, Attributes.of(TEMPLATE_KEY, template, OUTCOME_KEY, failed ? "failed" : "succeeded"));
+        }
+
+        if (retention == DetailRetention.ALL || (retention == DetailRetention.FAILED_ONLY && failed)) {
+            Deque<JobDetail> retained = details.computeIfAbsent(template, key -> new ArrayDeque<>());
+            retained.addLast(new JobDetail(jobName, failed, timestamp, new LinkedHashMap<>(samples)));
+            while (retained.size() > maxDetailsPerTemplate) {
+                retained.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Closes and returns every window that ended at or before {@code now},
+     * and expires closed rollups older than {@link #HISTORY_WINDOWS} windows.
+     * A late job for an already closed window is merged into its rollup.
+     */
+    public synchronized List<Rollup> flush(long now) {
+        List<Rollup> closed = new ArrayList<>();
+        Iterator<Map.Entry<Long, Map<String, Rollup>>> windows = openWindows.entrySet().iterator();
+        while (windows.hasNext()) {
+            Map.Entry<Long, Map<String, Rollup>> window = windows.next();
+            if (window.getKey() + windowMillis > now) {
+                break;
+            }
+            for (Rollup rollup : window.getValue().values()) {
+                Rollup existing = closedWindows.computeIfAbsent(rollup.template, key -> new TreeMap<>())
+                        .putIfAbsent(rollup.windowStart, rollup);
+                if (existing != null) {
+                    existing.add(rollup);
+                    rollup = existing;
+                }
+                closed.add(rollup);
+            }
+            windows.remove();
+        }
+
+        // Expire windows ending at or before now - HISTORY_WINDOWS * windowMillis
+        long lastExpiredStart = now - (HISTORY_WINDOWS + 1) * windowMillis;
+        Iterator<TreeMap<Long, Rollup>> templates = closedWindows.values().iterator();
+        while (templates.hasNext()) {
+            TreeMap<Long, Rollup> history = templates.next();
+            history.headMap(lastExpiredStart, true).clear();
+            if (history.isEmpty()) {
+                templates.remove();
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * The rollup of each template for the window that closed most recently
+     * before {@code now}. Templates with no jobs in that window are absent,
+     * so a stale rollup is never reported as current.
+     */
+    public synchronized Map<String, Rollup> latestRollups(long now) {
+        flush(now);
+        long lastClosedEnd = now - Math.floorMod(now, windowMillis);
+        Map<String, Rollup> latest = new LinkedHashMap<>();
+        for (TreeMap<Long, Rollup> history : closedWindows.values()) {
+            Rollup rollup = history.lastEntry().getValue();
+            if (rollup.windowEnd == lastClosedEnd) {
+                latest.put(rollup.template, rollup);
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Merges every retained closed window of each template into one rollup
+     * spanning them, e.g. the last {@link #HISTORY_WINDOWS} minutes at the
+     * default window size.
+     */
+    public synchronized Map<String, Rollup> mergedRollups(long now) {
+        flush(now);
+        Map<String, Rollup> merged = new LinkedHashMap<>();
+        for (TreeMap<Long, Rollup> history : closedWindows.values()) {
+            Rollup first = history.firstEntry().getValue();
+            Rollup total = new Rollup(first.template, first.windowStart, history.lastEntry().getValue().windowEnd);
+            for (Rollup rollup : history.values()) {
+                total.add(rollup);
+            }
+            merged.put(total.template, total);
+        }
+        return merged;
+    }
+
+    public synchronized List<JobDetail> getRetainedDetails(String template) {
+        Deque<JobDetail> retained = details.get(template);
+        return retained != null ? new ArrayList<>(retained) : Collections.emptyList();
+    }
+
+    /**
+     * Exports every recorded sample to a histogram per (template, metric) and
+     * counts jobs per (template, outcome). Only jobs recorded after this call
+     * are exported.
+     */
+    public void registerExport(Meter meter) {
+        jobCounter = meter.counterBuilder("job.template.jobs")
+                .setDescription("Finished jobs per template and outcome")
+                .build();
+        metricHistogram = meter.histogramBuilder(METRIC_HISTOGRAM)
+                .setDescription("Samples of the metrics printed by jobs, per template")
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable quantile sketch with bounded relative error (log-bucketed, in the
+ * style of DDSketch). Values map to bucket {@code ceil(log(v) / log(gamma))},
+ * so two sketches with the same accuracy merge by adding bucket counts and
+ * quantiles stay within {@code relativeAccuracy} of the true value.
+ *
+ * Values at or below zero share a single bucket; the job metrics folded here
+ * (CPU time, bytes, counts, latencies) are non-negative.
+ */
+public class MetricsSketch {
+
+    static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    private static final int MAX_BUCKETS = 2048;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long zeroCount;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public MetricsSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public MetricsSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy must be in (0, 1)");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value <= 0) {
+            zeroCount++;
+        } else {
+            buckets.merge((int) Math.ceil(Math.log(value) / logGamma), 1L, Long::sum);
+            collapseIfNeeded();
+        }
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /** Folds {@code other} into this sketch. Both must use the same accuracy. */
+    public void merge(MetricsSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        for (Map.Entry<Integer, Long> bucket : other.buckets.entrySet()) {
+            buckets.merge(bucket.getKey(), bucket.getValue(), Long::sum);
+        }
+        collapseIfNeeded();
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /** Returns the estimated value at quantile {@code q} in [0, 1], or NaN if empty. */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q <= 0) {
+            return min;
+        }
+        if (q >= 1) {
+            return max;
+        }
+
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return Math.max(min, 0);
+        }
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (rank < seen) {
+                double estimate = 2 * Math.pow(gamma, bucket.getKey()) / (gamma + 1);
+                return Math.min(max, Math.max(min, estimate));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    // Bounds memory by folding the lowest buckets together; only low quantiles lose accuracy
+    private void collapseIfNeeded() {
+        while (buckets.size() > MAX_BUCKETS) {
+            Map.Entry<Integer, Long> lowest = buckets.pollFirstEntry();
+            buckets.merge(buckets.firstKey(), lowest.getValue(), Long::sum);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The monitoring patterns as workflows. The one-shot run executes all of
+ * them as one DAG; the daemon runs a single pattern per submission.
+ */
+public class MonitoringPatterns {
+
+    static final long WORKFLOW_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    private static final int MAX_CONCURRENCY = 2;
+
+    private final JobCreator sidecarCreator = new JobCreator();
+    private final FileMetricsJobCreator fileMetricsCreator = new FileMetricsJobCreator();
+    private final DatabaseMetricsJobCreator dbMetricsCreator = new DatabaseMetricsJobCreator();
+
+    /**
+     * Sidecar and file-based in parallel, database metrics launched as soon
+     * as the file-based job completes. The sidecar Job never completes by
+     * itself, so it runs for a fixed window.
+     */
+    public JobWorkflow combined() {
+        return new JobWorkflow("monitoring-patterns", MAX_CONCURRENCY)
+                .addBackgroundJob("sidecar", sidecarCreator::createJobObject, JobCreator.SIDECAR_RUN_MILLIS)
+                .addJob("file-metrics", fileMetricsCreator::createFileMetricsJobObject)
+                .addJob("database", dbMetricsCreator::createDatabaseMetricsJobObject, "file-metrics");
+    }
+
+    /** One single-node workflow per pattern, keyed by the name used to submit it. */
+    public Map<String, Supplier<JobWorkflow>> single() {
+        Map<String, Supplier<JobWorkflow>> patterns = new LinkedHashMap<>();
+        patterns.put("sidecar", () -> new JobWorkflow("sidecar", 1)
+                .addBackgroundJob("sidecar", sidecarCreator::createJobObject, JobCreator.SIDECAR_RUN_MILLIS));
+        patterns.put("file-metrics", () -> new JobWorkflow("file-metrics", 1)
+                .addJob("file-metrics", fileMetricsCreator::createFileMetricsJobObject));
+        patterns.put("database", () -> new JobWorkflow("database", 1)
+                .addJob("database", dbMetricsCreator::createDatabaseMetricsJobObject));
+        return patterns;
+    }
+}
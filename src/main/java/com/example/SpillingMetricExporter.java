@@ -0,0 +1,89 @@
+package com.example;
+
+import io.opentelemetry.exporter.internal.otlp.metrics.MetricsRequestMarshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Metric exporter that hands batches the collector rejected or never received
+ * to a {@link DiskSpillBuffer} as OTLP protobuf, for {@link TelemetryBootstrap}
+ * to replay once the collector is reachable again. While spilled batches are
+ * waiting, new batches are queued behind them rather than sent, so the
+ * collector receives everything in order; cumulative points that arrive
+ * out of order would look like counter resets.
+ *
+ * Serialization uses the exporter's {@code MetricsRequestMarshaler} from the
+ * internal {@code io.opentelemetry.exporter.internal.otlp} package, which has no
+ * compatibility guarantee; opentelemetry-exporter-otlp-common is therefore
+ * pinned to the same version as the exporters (see pom.xml), and
+ * SpillingExporterTest checks the spilled payload on every upgrade.
+ */
+public class SpillingMetricExporter implements MetricExporter {
+
+    static final byte KIND_METRICS = 2;
+
+    private final MetricExporter delegate;
+    private final DiskSpillBuffer spillBuffer;
+
+    public SpillingMetricExporter(MetricExporter delegate, DiskSpillBuffer spillBuffer) {
+        this.delegate = delegate;
+        this.spillBuffer = spillBuffer;
+    }
+
+    @Override
+    public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+        return delegate.getAggregationTemporality(instrumentType);
+    }
+
+    @Override
+    public Aggregation getDefaultAggregation(InstrumentType instrumentType) {
+        return delegate.getDefaultAggregation(instrumentType);
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<MetricData> metrics) {
+        if (!spillBuffer.isEmpty()) {
+            return spill(metrics) ? CompletableResultCode.ofSuccess() : CompletableResultCode.ofFailure();
+        }
+
+        CompletableResultCode exported = delegate.export(metrics);
+        CompletableResultCode result = new CompletableResultCode();
+        exported.whenComplete(() -> {
+            if (exported.isSuccess() || spill(metrics)) {
+                result.succeed();
+            } else {
+                result.fail();
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+
+    private boolean spill(Collection<MetricData> metrics) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MetricsRequestMarshaler.create(metrics).writeBinaryTo(out);
+            return spillBuffer.append(KIND_METRICS, out.toByteArray());
+        } catch (IOException e) {
+            System.err.println("⚠️  Could not spill metrics to disk: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example;
+
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Span exporter that hands batches the collector rejected or never received
+ * to a {@link DiskSpillBuffer} as OTLP protobuf, for {@link TelemetryBootstrap}
+ * to replay once the collector is reachable again. While spilled batches are
+ * waiting, new batches are queued behind them rather than sent, so the
+ * collector receives everything in order.
+ *
+ * Serialization uses the exporter's {@code TraceRequestMarshaler} from the
+ * internal {@code io.opentelemetry.exporter.internal.otlp} package, which has no
+ * compatibility guarantee; opentelemetry-exporter-otlp-common is therefore
+ * pinned to the same version as the exporters (see pom.xml), and
+ * SpillingExporterTest checks the spilled payload on every upgrade.
+ */
+public class SpillingSpanExporter implements SpanExporter {
+
+    static final byte KIND_TRACES = 1;
+
+    private final SpanExporter delegate;
+    private final DiskSpillBuffer spillBuffer;
+
+    public SpillingSpanExporter(SpanExporter delegate, DiskSpillBuffer spillBuffer) {
+        this.delegate = delegate;
+        this.spillBuffer = spillBuffer;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        if (!spillBuffer.isEmpty()) {
+            return spill(spans) ? CompletableResultCode.ofSuccess() : CompletableResultCode.ofFailure();
+        }
+
+        CompletableResultCode exported = delegate.export(spans);
+        CompletableResultCode result = new CompletableResultCode();
+        exported.whenComplete(() -> {
+            if (exported.isSuccess() || spill(spans)) {
+                result.succeed();
+            } else {
+                result.fail();
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+
+    private boolean spill(Collection<SpanData> spans) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            TraceRequestMarshaler.create(spans).writeBinaryTo(out);
+            return spillBuffer.append(KIND_TRACES, out.toByteArray());
+        } catch (IOException e) {
+            System.err.println("⚠️  Could not spill spans to disk: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.example;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.exporter.otlp.http.metrics.OtlpHttpMetricExporter;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentSelector;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.SdkMeterProviderBuilder;
+import io.opentelemetry.sdk.metrics.View;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Programmatic OpenTelemetry SDK setup, so telemetry no longer depends on
+ * whatever an external agent configures.
+ *
+ * Spans go through a {@link BatchSpanProcessor} with a bounded queue (spans
+ * beyond it are dropped and counted by the processor's own metrics); metrics
+ * are pulled by a {@link PeriodicMetricReader}. Both export over OTLP/HTTP.
+ * Batches the collector does not accept are spilled to a memory-mapped
+ * {@link DiskSpillBuffer} and replayed in order once it is reachable again.
+ *
+ * Only one process can own the spill file. A second monitor running at the
+ * same time spills to a file suffixed with its PID instead. That file is
+ * deleted on exit, so it only covers collector outages while that process
+ * runs. If neither file can be locked, spilling is disabled.
+ *
+ * Configuration (system properties):
+ * <ul>
+ *   <li>{@code otel.exporter.otlp.endpoint} (or env {@code OTEL_EXPORTER_OTLP_ENDPOINT}),
+ *       default {@code http://localhost:4318}</li>
+ *   <li>{@code k8s.monitor.spill.file}, default {@code ${java.io.tmpdir}/k8s-job-monitor-otlp.spill}</li>
+ *   <li>{@code k8s.monitor.spill.bytes}, default 32 MiB</li>
+ *   <li>{@code k8s.monitor.telemetry.disabled=true} to skip the bootstrap</li>
+ * </ul>
+ */
+public final class TelemetryBootstrap implements AutoCloseable {
+
+    static final String DEFAULT_ENDPOINT = "http://localhost:4318";
+    private static final int DEFAULT_SPILL_BYTES = 32 * 1024 * 1024;
+
+    private static final int SPAN_QUEUE_SIZE = 2048;
+    private static final int SPAN_BATCH_SIZE = 512;
+    private static final Duration SPAN_SCHEDULE_DELAY = Duration.ofSeconds(1);
+    private static final Duration EXPORT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration METRIC_INTERVAL = Duration.ofSeconds(30);
+    private static final long REPLAY_INTERVAL_SECONDS = 5;
+
+    private static final MediaType PROTOBUF = MediaType.get("application/x-protobuf");
+    private static final AttributeKey<String> RESULT_KEY = AttributeKey.stringKey("result");
+
+    private final OpenTelemetrySdk sdk;
+    private final DiskSpillBuffer spillBuffer;
+    private final boolean deleteSpillFile;
+    private final String endpoint;
+    private final OkHttpClient replayClient;
+    private final ScheduledExecutorService replayExecutor;
+
+    private TelemetryBootstrap(OpenTelemetrySdk sdk, DiskSpillBuffer spillBuffer, boolean deleteSpillFile,
+                               String endpoint) {
+        this.sdk = sdk;
+        this.spillBuffer = spillBuffer;
+        this.deleteSpillFile = deleteSpillFile;
+        this.endpoint = endpoint;
+        this.replayClient = new OkHttpClient.Builder()
+                .callTimeout(EXPORT_TIMEOUT)
+                .build();
+        this.replayExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "telemetry-spill-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Builds the SDK and registers it as the global instance. Returns null if
+     * disabled or if another SDK (e.g. the javaagent's) is already registered.
+     */
+    public static TelemetryBootstrap install() throws IOException {
+        if (Boolean.getBoolean("k8s.monitor.telemetry.disabled")) {
+            return null;
+        }
+
+        String endpoint = System.getProperty("otel.exporter.otlp.endpoint",
+                System.getenv().getOrDefault("OTEL_EXPORTER_OTLP_ENDPOINT", DEFAULT_ENDPOINT));
+        if (endpoint.endsWith("/")) {
+            endpoint = endpoint.substring(0, endpoint.length() - 1);
+        }
+        Path spillPath = Paths.get(System.getProperty("k8s.monitor.spill.file",
+                Paths.get(System.getProperty("java.io.tmpdir"), "k8s-job-monitor-otlp.spill").toString()));
+        int spillBytes = Integer.getInteger("k8s.monitor.spill.bytes", DEFAULT_SPILL_BYTES);
+
+        DiskSpillBuffer spillBuffer = openSpillBuffer(spillPath, spillBytes);
+        boolean perProcessSpill = spillBuffer != null && !spillBuffer.getPath().equals(spillPath);
+
+        OtlpHttpMetricExporter metricExporter = OtlpHttpMetricExporter.builder()
+                .setEndpoint(endpoint + "/v1/metrics")
+                .setTimeout(EXPORT_TIMEOUT)
+                .build();
+        Resource resource = Resource.getDefault().merge(Resource.create(
+                Attributes.of(AttributeKey.stringKey("service.name"), "k8s-job-monitor")));
+
+        SdkMeterProvider meterProvider = registerViews(SdkMeterProvider.builder())
+                .setResource(resource)
+                .registerMetricReader(PeriodicMetricReader.builder(spillBuffer != null
+                                ? new SpillingMetricExporter(metricExporter, spillBuffer)
+                                : metricExporter)
+                        .setInterval(METRIC_INTERVAL)
+                        .build())
+                .build();
+
+        OtlpHttpSpanExporter spanExporter = OtlpHttpSpanExporter.builder()
+                .setEndpoint(endpoint + "/v1/traces")
+                .setTimeout(EXPORT_TIMEOUT)
+                .setMeterProvider(meterProvider)
+                .build();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .setResource(resource)
+                .addSpanProcessor(BatchSpanProcessor.builder(spillBuffer != null
+                                ? new SpillingSpanExporter(spanExporter, spillBuffer)
+                                : spanExporter)
+                        .setMaxQueueSize(SPAN_QUEUE_SIZE)
+                        .setMaxExportBatchSize(SPAN_BATCH_SIZE)
+                        .setScheduleDelay(SPAN_SCHEDULE_DELAY)
+                        .setExporterTimeout(EXPORT_TIMEOUT)
+                        .setMeterProvider(meterProvider)
+                        .build())
+                .build();
+
+        OpenTelemetrySdk sdk = OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .setMeterProvider(meterProvider)
+                .build();
+
+        try {
+            GlobalOpenTelemetry.set(sdk);
+        } catch (IllegalStateException e) {
+            System.out.println("ℹ️  OpenTelemetry already configured externally, skipping SDK bootstrap");
+            sdk.close();
+            if (spillBuffer != null) {
+                spillBuffer.close();
+                if (perProcessSpill) {
+                    Files.deleteIfExists(spillBuffer.getPath());
+                }
+            }
+            return null;
+        }
+
+        TelemetryBootstrap bootstrap = new TelemetryBootstrap(sdk, spillBuffer, perProcessSpill, endpoint);
+        if (spillBuffer != null) {
+            bootstrap.registerSpillMetrics(sdk.getMeter("k8s-job-monitor.telemetry"));
+            bootstrap.replayExecutor.scheduleWithFixedDelay(bootstrap::replaySpilled,
+                    0, REPLAY_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(bootstrap::close, "telemetry-shutdown"));
+
+        System.out.println("📡 OpenTelemetry SDK exporting to " + endpoint
+                + (spillBuffer != null ? " (spill buffer: " + spillBuffer.getPath() + ")" : ""));
+        return bootstrap;
+    }
+
+    /**
+     * Opens the shared spill file, or a per-process one next to it if another
+     * monitor holds the lock. Returns null if neither can be used, e.g. when
+     * the directory is read-only or full, so telemetry is exported unbuffered.
+     */
+    static DiskSpillBuffer openSpillBuffer(Path spillPath, int spillBytes) {
+        try {
+            DiskSpillBuffer spillBuffer = DiskSpillBuffer.tryOpen(spillPath, spillBytes);
+            if (spillBuffer == null) {
+                // Another monitor owns the shared spill file
+                spillBuffer = DiskSpillBuffer.tryOpen(spillPath.resolveSibling(
+                        spillPath.getFileName() + "." + ProcessHandle.current().pid()), spillBytes);
+            }
+            if (spillBuffer == null) {
+                System.out.println("⚠️  Spill file " + spillPath + " is locked, telemetry spilling disabled");
+            }
+            return spillBuffer;
+        } catch (IOException e) {
+            System.err.println("⚠️  Cannot open spill file " + spillPath + ", telemetry spilling disabled: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        replayExecutor.shutdownNow();
+        // Final flush; anything the collector rejects lands in the spill file
+        sdk.getSdkTracerProvider().shutdown().join(EXPORT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        sdk.getSdkMeterProvider().shutdown().join(EXPORT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        if (spillBuffer == null) {
+            return;
+        }
+        try {
+            if (deleteSpillFile && !spillBuffer.isEmpty()) {
+                System.err.println("⚠️  Discarding " + spillBuffer.usedBytes()
+                        + " bytes of unsent telemetry in " + spillBuffer.getPath());
+            }
+            spillBuffer.close();
+            if (deleteSpillFile) {
+                Files.deleteIfExists(spillBuffer.getPath());
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Could not close spill buffer: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Job metric samples are aggregated as base-2 exponential histograms:
+     * they span several orders of magnitude (bytes, counts, percentages) and,
+     * unlike precomputed percentiles, merge across windows and instances.
+     */
+    static SdkMeterProviderBuilder registerViews(SdkMeterProviderBuilder builder) {
+        return builder.registerView(
+                InstrumentSelector.builder().setName(MetricsAggregator.METRIC_HISTOGRAM).build(),
+                View.builder().setAggregation(Aggregation.base2ExponentialBucketHistogram()).build());
+    }
+
+    private void registerSpillMetrics(Meter meter) {
+        meter.counterBuilder("telemetry.spill.records")
+                .setDescription("Export batches spilled to disk, replayed, or dropped because the buffer was full")
+                .buildWithCallback(measurement -> {
+                    measurement.record(spillBuffer.getAppended(), Attributes.of(RESULT_KEY, "spilled"));
+                    measurement.record(spillBuffer.getRemoved(), Attributes.of(RESULT_KEY, "replayed"));
+                    measurement.record(spillBuffer.getDropped(), Attributes.of(RESULT_KEY, "dropped"));
+                });
+
+        meter.gaugeBuilder("telemetry.spill.bytes")
+                .ofLongs()
+                .setUnit("By")
+                .setDescription("Bytes of export data waiting in the spill buffer")
+                .buildWithCallback(measurement -> measurement.record(spillBuffer.usedBytes()));
+    }
+
+    // Sends spilled batches oldest-first; stops at the first failure and retries next tick
+    private void replaySpilled() {
+        try {
+            replayPending();
+        } catch (RuntimeException e) {
+            // An exception escaping here would cancel the scheduled replay for good
+            System.err.println("⚠️  Telemetry replay failed, retrying later: " + e);
+        }
+    }
+
+    private void replayPending() {
+        DiskSpillBuffer.Record record;
+        while ((record = spillBuffer.peek()) != null) {
+            String path = record.getKind() == SpillingSpanExporter.KIND_TRACES ? "/v1/traces" : "/v1/metrics";
+            Request request = new Request.Builder()
+                    .url(endpoint + path)
+                    .post(RequestBody.create(record.getPayload(), PROTOBUF))
+                    .build();
+
+            try (Response response = replayClient.newCall(request).execute()) {
+                int code = response.code();
+                boolean retryable = code == 429 || code >= 500;
+                if (!response.isSuccessful() && retryable) {
+                    return;
+                }
+                if (!response.isSuccessful()) {
+                    // The collector will never accept this batch; do not let it block the queue
+                    System.err.println("⚠️  Dropping spilled telemetry batch rejected with HTTP " + code);
+                }
+            } catch (IOException e) {
+                return;
+            }
+            spillBuffer.remove();
+        }
+    }
+}
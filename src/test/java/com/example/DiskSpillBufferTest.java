@@ -0,0 +1,143 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiskSpillBufferTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRecordsAreReturnedInOrder() throws Exception {
+        try (DiskSpillBuffer buffer = DiskSpillBuffer.tryOpen(tempDir.resolve("spill"), 1024)) {
+            assertTrue(buffer.append((byte) 1, new byte[]{1, 2, 3}));
+            assertTrue(buffer.append((byte) 2, new byte[]{4}));
+
+            DiskSpillBuffer.Record first = buffer.peek();
+            assertEquals(1, first.getKind());
+            assertArrayEquals(new byte[]{1, 2, 3}, first.getPayload());
+            buffer.remove();
+
+            assertArrayEquals(new byte[]{4}, buffer.peek().getPayload());
+            buffer.remove();
+
+            assertNull(buffer.peek());
+            assertTrue(buffer.isEmpty());
+            assertEquals(2, buffer.getRemoved());
+        }
+    }
+
+    @Test
+    public void testRecordsSurviveReopen() throws Exception {
+        Path path = tempDir.resolve("spill");
+        try (DiskSpillBuffer buffer = DiskSpillBuffer.tryOpen(path, 1024)) {
+            buffer.append((byte) 1, new byte[]{9, 9});
+            buffer.append((byte) 2, new byte[]{7});
+            buffer.remove();
+        }
+
+        try (DiskSpillBuffer reopened = DiskSpillBuffer.tryOpen(path, 1024)) {
+            DiskSpillBuffer.Record record = reopened.peek();
+            assertEquals(2, record.getKind());
+            assertArrayEquals(new byte[]{7}, record.getPayload());
+        }
+    }
+
+    @Test
+    public void testCompactsBeforeDroppingWhenFull() throws Exception {
+        // 16-byte header + room for exactly two 49-byte records
+        try (DiskSpillBuffer buffer = DiskSpillBuffer.tryOpen(tempDir.resolve("spill"), 16 + 98)) {
+            assertTrue(buffer.append((byte) 1, new byte[40]));
+            assertTrue(buffer.append((byte) 1, new byte[40]));
+            assertFalse(buffer.append((byte) 1, new byte[40]));
+            assertEquals(1, buffer.getDropped());
+
+            buffer.remove();
+            byte[] payload = new byte[40];
+            payload[0] = 42;
+            assertTrue(buffer.append((byte) 2, payload));
+
+            buffer.remove();
+            assertEquals(42, buffer.peek().getPayload()[0]);
+        }
+    }
+
+    @Test
+    public void testDoesNotCompactOverlappingLiveRegion() throws Exception {
+        // Room for three 49-byte records
+        try (DiskSpillBuffer buffer = DiskSpillBuffer.tryOpen(tempDir.resolve("spill"), 16 + 147)) {
+            assertTrue(buffer.append((byte) 1, new byte[40]));
+            assertTrue(buffer.append((byte) 1, new byte[40]));
+            assertTrue(buffer.append((byte) 1, new byte[40]));
+            buffer.remove();
+
+            // Moving two live records over one consumed one would overwrite them mid-copy
+            assertFalse(buffer.append((byte) 2, new byte[40]));
+
+            buffer.remove();
+            assertTrue(buffer.append((byte) 2, new byte[40]));
+            assertEquals(1, buffer.peek().getKind());
+            buffer.remove();
+            assertEquals(2, buffer.peek().getKind());
+        }
+    }
+
+    @Test
+    public void testCorruptLengthTruncatesLogOnOpen() throws Exception {
+        Path path = tempDir.resolve("spill");
+        try (DiskSpillBuffer buffer = DiskSpillBuffer.tryOpen(path, 1024)) {
+            buffer.append((byte) 1, new byte[]{1, 2, 3});
+            buffer.append((byte) 1, new byte[]{4, 5});
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // Length field of the second record: header + first record (9 + 3) + kind byte
+            file.seek(16 + 12 + 1);
+            file.writeInt(Integer.MAX_VALUE);
+        }
+
+        try (DiskSpillBuffer reopened = DiskSpillBuffer.tryOpen(path, 1024)) {
+            assertEquals(1, reopened.getDropped());
+            assertArrayEquals(new byte[]{1, 2, 3}, reopened.peek().getPayload());
+            reopened.remove();
+            assertNull(reopened.peek());
+            assertTrue(reopened.isEmpty());
+        }
+    }
+
+    @Test
+    public void testChecksumMismatchDiscardsRecord() throws Exception {
+        Path path = tempDir.resolve("spill");
+        try (DiskSpillBuffer buffer = DiskSpillBuffer.tryOpen(path, 1024)) {
+            buffer.append((byte) 1, new byte[]{1, 2, 3});
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(16 + 9);
+            file.write(99);
+        }
+
+        try (DiskSpillBuffer reopened = DiskSpillBuffer.tryOpen(path, 1024)) {
+            assertNull(reopened.peek());
+            assertTrue(reopened.isEmpty());
+            assertEquals(1, reopened.getDropped());
+        }
+    }
+
+    @Test
+    public void testSecondOpenOfLockedFileFails() throws Exception {
+        Path path = tempDir.resolve("spill");
+        try (DiskSpillBuffer buffer = DiskSpillBuffer.tryOpen(path, 1024)) {
+            assertNotNull(buffer);
+            assertNull(DiskSpillBuffer.tryOpen(path, 1024));
+        }
+
+        DiskSpillBuffer reopened = DiskSpillBuffer.tryOpen(path, 1024);
+        assertNotNull(reopened);
+        reopened.close();
+    }
+}
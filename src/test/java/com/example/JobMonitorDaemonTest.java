@@ -0,0 +1,201 @@
+package com.example;
+
+import com.google.gson.Gson;
+import io.kubernetes.client.openapi.models.V1Job;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobMonitorDaemonTest {
+
+    private final Gson gson = new Gson();
+    private final List<String> jobNames = new CopyOnWriteArrayList<>();
+    private final CountDownLatch released = new CountDownLatch(1);
+    private MetricsAggregator aggregator;
+    private JobWorkflowExecutor executor;
+    private JobMonitorDaemon daemon;
+
+    private static V1Job job() {
+        return new V1Job().metadata(new V1ObjectMeta().generateName("demo-"));
+    }
+
+    @BeforeEach
+    public void startDaemon() throws IOException {
+        DryRunCluster cluster = new DryRunCluster();
+        aggregator = new MetricsAggregator(1000, MetricsAggregator.DetailRetention.ALL, 10);
+        // Recorded into the previous one-second window, which is already closed
+        executor = new JobWorkflowExecutor(cluster, cluster).onNodeFinished((job, failed) -> {
+            jobNames.add(job.getName());
+            aggregator.record("demo", job.getName(), failed, Map.of("demo_total", List.of(1.0)),
+                    System.currentTimeMillis() - 1000);
+        });
+
+        daemon = new JobMonitorDaemon(0, 2, 10, 10, patterns(),
+                workflow -> executor.execute(workflow, 5000), aggregator);
+        daemon.start();
+    }
+
+    @AfterEach
+    public void stopDaemon() {
+        released.countDown();
+        daemon.stop();
+    }
+
+    private static Map<String, Supplier<JobWorkflow>> patterns() {
+        Map<String, Supplier<JobWorkflow>> patterns = new LinkedHashMap<>();
+        patterns.put("ok", () -> new JobWorkflow("ok", 1).addJob("ok", JobMonitorDaemonTest::job));
+        patterns.put("broken", () -> new JobWorkflow("broken", 1).addJob("broken", () -> {
+            throw new IllegalStateException("template failed");
+        }));
+        return patterns;
+    }
+
+    // One worker whose runs wait until the test releases them
+    private void restartWithHeldWorker(int maxQueuedRuns, int maxRetainedRuns) throws IOException {
+        daemon.stop();
+        daemon = new JobMonitorDaemon(0, 1, maxQueuedRuns, maxRetainedRuns, patterns(), workflow -> {
+            released.await();
+            return executor.execute(workflow, 5000);
+        }, aggregator);
+        daemon.start();
+    }
+
+    @Test
+    public void testSubmittedRunReportsWorkflowOutcome() throws Exception {
+        Response accepted = call("POST", "/jobs?pattern=ok");
+        assertEquals(202, accepted.code);
+
+        Map<?, ?> run = awaitFinished((String) accepted.body.get("id"));
+
+        assertEquals("SUCCEEDED", run.get("state"));
+        assertEquals(Map.of("ok", "SUCCEEDED"), run.get("nodes"));
+        assertEquals(1, ((List<?>) gson.fromJson(call("GET", "/jobs").raw, List.class)).size());
+    }
+
+    @Test
+    public void testFailedRunCarriesError() throws Exception {
+        Map<?, ?> run = awaitFinished((String) call("POST", "/jobs?pattern=broken").body.get("id"));
+
+        assertEquals("FAILED", run.get("state"));
+        assertEquals(Map.of("broken", "FAILED"), run.get("nodes"));
+        assertEquals("Workflow did not complete successfully", run.get("error"));
+    }
+
+    @Test
+    public void testFinishedJobsReachMetricsEndpoints() throws Exception {
+        awaitFinished((String) call("POST", "/jobs?pattern=ok").body.get("id"));
+
+        List<?> rollups = gson.fromJson(call("GET", "/metrics").raw, List.class);
+        assertEquals(1, rollups.size());
+        assertEquals(1.0, ((Map<?, ?>) rollups.get(0)).get("jobs"));
+
+        List<?> details = gson.fromJson(call("GET", "/metrics/details?template=demo").raw, List.class);
+        assertEquals(1, details.size());
+        assertEquals(Map.of("demo_total", List.of(1.0)), ((Map<?, ?>) details.get(0)).get("samples"));
+    }
+
+    @Test
+    public void testConcurrentRunsGetDistinctJobNames() throws Exception {
+        String first = (String) call("POST", "/jobs?pattern=ok").body.get("id");
+        String second = (String) call("POST", "/jobs?pattern=ok").body.get("id");
+        assertEquals("SUCCEEDED", awaitFinished(first).get("state"));
+        assertEquals("SUCCEEDED", awaitFinished(second).get("state"));
+
+        assertEquals(2, jobNames.size());
+        assertNotEquals(jobNames.get(0), jobNames.get(1));
+    }
+
+    @Test
+    public void testFullQueueAnswersTooManyRequests() throws Exception {
+        restartWithHeldWorker(1, 10);
+
+        assertEquals(202, call("POST", "/jobs?pattern=ok").code);  // taken by the worker
+        assertEquals(202, call("POST", "/jobs?pattern=ok").code);  // queued
+        assertEquals(429, call("POST", "/jobs?pattern=ok").code);
+
+        assertEquals(2, ((List<?>) gson.fromJson(call("GET", "/jobs").raw, List.class)).size());
+    }
+
+    @Test
+    public void testOnlyFinishedRunsAreEvicted() throws Exception {
+        restartWithHeldWorker(10, 1);
+
+        String first = (String) call("POST", "/jobs?pattern=ok").body.get("id");
+        String second = (String) call("POST", "/jobs?pattern=ok").body.get("id");
+        // Over the limit, but neither run has finished
+        assertEquals(200, call("GET", "/jobs/" + first).code);
+
+        released.countDown();
+        awaitFinished(first);
+        awaitFinished(second);
+        String third = (String) call("POST", "/jobs?pattern=ok").body.get("id");
+
+        assertEquals(404, call("GET", "/jobs/" + first).code);
+        assertEquals(404, call("GET", "/jobs/" + second).code);
+        assertEquals(200, call("GET", "/jobs/" + third).code);
+    }
+
+    @Test
+    public void testRejectsBadRequests() throws Exception {
+        assertEquals(400, call("POST", "/jobs?pattern=unknown").code);
+        assertEquals(400, call("POST", "/jobs").code);
+        assertEquals(404, call("GET", "/jobs/missing").code);
+        assertEquals(405, call("DELETE", "/jobs").code);
+        assertEquals(400, call("GET", "/metrics/details").code);
+        assertEquals(405, call("POST", "/metrics").code);
+    }
+
+    private Map<?, ?> awaitFinished(String id) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            Map<?, ?> run = call("GET", "/jobs/" + id).body;
+            String state = (String) run.get("state");
+            if ("SUCCEEDED".equals(state) || "FAILED".equals(state)) {
+                return run;
+            }
+            assertTrue(System.currentTimeMillis() < deadline, "run did not finish: " + run);
+            Thread.sleep(20);
+        }
+    }
+
+    private Response call(String method, String path) throws IOException {
+        URL url = new URL("http://127.0.0.1:" + daemon.getPort() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        try {
+            int code = connection.getResponseCode();
+            try (InputStream in = code < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                return new Response(code, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private final class Response {
+        private final int code;
+        private final String raw;
+        private final Map<?, ?> body;
+
+        Response(int code, String raw) {
+            this.code = code;
+            this.raw = raw;
+            this.body = raw.startsWith("{") ? gson.fromJson(raw, Map.class) : null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example;
+
+import com.google.gson.stream.JsonReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobStatusDecoderTest {
+
+    private static final String JOB_JSON = "{"
+            + "\"apiVersion\":\"batch/v1\",\"kind\":\"Job\","
+            + "\"metadata\":{\"name\":\"job-a\",\"uid\":\"u-1\",\"resourceVersion\":\"42\","
+            + "\"labels\":{\"app\":\"demo\"},\"managedFields\":[{\"manager\":\"kubectl\"}]},"
+            + "\"spec\":{\"template\":{\"spec\":{\"containers\":[{\"name\":\"c\",\"image\":\"busybox\"}]}}},"
+            + "\"status\":{\"succeeded\":1,\"failed\":null,\"completionTime\":\"2024-01-01T00:00:00Z\","
+            + "\"conditions\":[{\"type\":\"Complete\",\"status\":\"True\",\"lastProbeTime\":null}]}"
+            + "}";
+
+    @Test
+    public void testDecodeJobKeepsProjectedFields() throws Exception {
+        JobStatusSnapshot job = JobStatusDecoder.decodeJob(new StringReader(JOB_JSON));
+
+        assertEquals("job-a", job.getName());
+        assertEquals("u-1", job.getUid());
+        assertEquals("42", job.getResourceVersion());
+        assertEquals("demo", job.getLabels().get("app"));
+        assertTrue(job.hasStatus());
+        assertEquals(1, job.getSucceeded());
+        assertNull(job.getFailed());
+        assertTrue(job.isComplete());
+        assertFalse(job.isFailed());
+    }
+
+    @Test
+    public void testDecodeJobWithoutStatus() throws Exception {
+        JobStatusSnapshot job = JobStatusDecoder.decodeJob(
+                new StringReader("{\"metadata\":{\"name\":\"pending\"},\"spec\":{}}"));
+
+        assertEquals("pending", job.getName());
+        assertFalse(job.hasStatus());
+        assertNull(job.getSucceeded());
+    }
+
+    @Test
+    public void testDecodeListReadsItemsAndContinueToken() throws Exception {
+        String json = "{\"kind\":\"JobList\",\"metadata\":{\"resourceVersion\":\"100\",\"continue\":\"next\"},"
+                + "\"items\":[" + JOB_JSON + ",{\"metadata\":{\"name\":\"job-b\"},\"status\":{\"active\":1}}]}";
+
+        JobStatusDecoder.JobList list = JobStatusDecoder.decodeList(new StringReader(json));
+
+        assertEquals("100", list.getResourceVersion());
+        assertEquals("next", list.getContinueToken());
+        assertEquals(2, list.getItems().size());
+        assertEquals("job-b", list.getItems().get(1).getName());
+        assertEquals(1, list.getItems().get(1).getActive());
+    }
+
+    @Test
+    public void testNextWatchEventReadsLineDelimitedStream() throws Exception {
+        String stream = "{\"type\":\"ADDED\",\"object\":" + JOB_JSON + "}\n"
+                + "{\"object\":{\"metadata\":{\"resourceVersion\":\"43\"}},\"type\":\"BOOKMARK\"}\n";
+        JsonReader reader = JobStatusDecoder.watchReader(new StringReader(stream));
+
+        JobStatusDecoder.WatchEvent added = JobStatusDecoder.nextWatchEvent(reader);
+        assertEquals("ADDED", added.getType());
+        assertEquals("job-a", added.getJob().getName());
+
+        JobStatusDecoder.WatchEvent bookmark = JobStatusDecoder.nextWatchEvent(reader);
+        assertEquals("BOOKMARK", bookmark.getType());
+        assertEquals("43", bookmark.getJob().getResourceVersion());
+
+        assertNull(JobStatusDecoder.nextWatchEvent(reader));
+    }
+
+    @Test
+    public void testErrorEventCarriesStatusCode() throws Exception {
+        String stream = "{\"type\":\"ERROR\",\"object\":{\"kind\":\"Status\",\"apiVersion\":\"v1\","
+                + "\"metadata\":{},\"status\":\"Failure\",\"message\":\"too old resource version\","
+                + "\"reason\":\"Expired\",\"code\":410}}\n";
+        JsonReader reader = JobStatusDecoder.watchReader(new StringReader(stream));
+
+        JobStatusDecoder.WatchEvent error = JobStatusDecoder.nextWatchEvent(reader);
+
+        assertEquals("ERROR", error.getType());
+        assertEquals(410, error.getCode());
+        assertEquals("too old resource version", error.getMessage());
+    }
+}
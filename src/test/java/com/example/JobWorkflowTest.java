@@ -0,0 +1,285 @@
+package com.example;
+
+import io.kubernetes.client.openapi.models.V1Job;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobWorkflowTest {
+
+    private static V1Job job() {
+        return new V1Job();
+    }
+
+    /**
+     * Stands in for the cluster: records created and deleted Jobs and, on each
+     * poll, reports the scripted outcome of the longest-running Job that has
+     * one. Jobs without a scripted outcome never finish. Time only moves in
+     * poll: 10ms per event, or the waited time when nothing happens.
+     */
+    private static final class FakeCluster implements JobWorkflowExecutor.JobLauncher,
+            JobWorkflowExecutor.EventSource, JobWorkflowExecutor.Events {
+
+        private final Map<String, String> outcomes = new HashMap<>();
+        private final Map<String, String> running = new LinkedHashMap<>();
+        private final List<String> created = new ArrayList<>();
+        private final List<String> deleted = new ArrayList<>();
+        private final CountDownLatch launched = new CountDownLatch(1);
+        private int maxRunning;
+        private long now = 1_000_000;
+
+        FakeCluster outcome(String nodeId, String condition) {
+            outcomes.put(nodeId, condition);
+            return this;
+        }
+
+        @Override
+        public String create(V1Job job) {
+            String nodeId = job.getMetadata().getLabels().get(JobWorkflowExecutor.NODE_LABEL);
+            String jobName = nodeId + "-job";
+            created.add(nodeId);
+            running.put(jobName, nodeId);
+            maxRunning = Math.max(maxRunning, running.size());
+            launched.countDown();
+            return jobName;
+        }
+
+        @Override
+        public void delete(String jobName) {
+            deleted.add(jobName);
+            running.remove(jobName);
+        }
+
+        @Override
+        public JobWorkflowExecutor.Events open(String selector) {
+            return this;
+        }
+
+        @Override
+        public JobStatusDecoder.WatchEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+            for (Map.Entry<String, String> entry : running.entrySet()) {
+                String condition = outcomes.get(entry.getValue());
+                if (condition != null) {
+                    now += 10;
+                    running.remove(entry.getKey());
+                    JobStatusSnapshot job = new JobStatusSnapshot(entry.getKey(), null, null,
+                            Map.of(JobWorkflowExecutor.NODE_LABEL, entry.getValue()), true,
+                            null, null, null, null, null, Map.of(condition, "True"));
+                    return new JobStatusDecoder.WatchEvent("MODIFIED", job);
+                }
+            }
+            long waited = Math.min(unit.toMillis(timeout), 5);
+            TimeUnit.MILLISECONDS.sleep(waited);
+            now += waited;
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static JobWorkflowExecutor.Result run(FakeCluster cluster, JobWorkflow workflow, long timeoutMillis)
+            throws Exception {
+        return executor(cluster).execute(workflow, timeoutMillis);
+    }
+
+    private static JobWorkflowExecutor executor(FakeCluster cluster) {
+        return new JobWorkflowExecutor(cluster, cluster, () -> cluster.now);
+    }
+
+    @Test
+    public void testAddJobRejectsUnknownDependency() {
+        JobWorkflow workflow = new JobWorkflow("wf", 2).addJob("a", JobWorkflowTest::job);
+
+        assertThrows(IllegalArgumentException.class, () -> workflow.addJob("b", JobWorkflowTest::job, "missing"));
+        assertThrows(IllegalArgumentException.class, () -> workflow.addJob("a", JobWorkflowTest::job));
+    }
+
+    @Test
+    public void testDependentsAreInverseOfDependsOn() {
+        JobWorkflow workflow = new JobWorkflow("wf", 2)
+                .addJob("a", JobWorkflowTest::job)
+                .addJob("b", JobWorkflowTest::job, "a")
+                .addJob("c", JobWorkflowTest::job, "a", "b");
+
+        Map<String, List<String>> dependents = workflow.dependents();
+
+        assertEquals(Arrays.asList("b", "c"), dependents.get("a"));
+        assertEquals(Arrays.asList("c"), dependents.get("b"));
+        assertTrue(dependents.get("c").isEmpty());
+    }
+
+    @Test
+    public void testCriticalPathFollowsLastFinishingDependency() {
+        JobWorkflow workflow = new JobWorkflow("wf", 2)
+                .addJob("fast", JobWorkflowTest::job)
+                .addJob("slow", JobWorkflowTest::job)
+                .addJob("join", JobWorkflowTest::job, "fast", "slow")
+                .addJob("side", JobWorkflowTest::job, "fast");
+
+        List<String> path = workflow.criticalPath(Map.of(
+                "fast", 10L,
+                "slow", 40L,
+                "join", 60L,
+                "side", 30L));
+
+        assertEquals(Arrays.asList("slow", "join"), path);
+    }
+
+    @Test
+    public void testCriticalPathPrefersDownstreamNodeOnTie() {
+        JobWorkflow workflow = new JobWorkflow("wf", 2)
+                .addJob("a", JobWorkflowTest::job)
+                .addJob("b", JobWorkflowTest::job, "a");
+
+        assertEquals(Arrays.asList("a", "b"), workflow.criticalPath(Map.of("a", 10L, "b", 10L)));
+    }
+
+    @Test
+    public void testDownstreamLaunchesAfterUpstreamCompletes() throws Exception {
+        FakeCluster cluster = new FakeCluster().outcome("a", "Complete").outcome("b", "Complete");
+        List<String> finished = new ArrayList<>();
+        JobWorkflow workflow = new JobWorkflow("wf", 2)
+                .addJob("a", JobWorkflowTest::job)
+                .addJob("b", JobWorkflowTest::job, "a");
+
+        JobWorkflowExecutor.Result result = executor(cluster)
+                .onNodeFinished((job, failed) -> finished.add(job.getName()))
+                .execute(workflow, 5000);
+
+        assertTrue(result.isSucceeded());
+        assertEquals(Arrays.asList("a", "b"), cluster.created);
+        assertEquals(1, cluster.maxRunning);
+        assertEquals(Arrays.asList("a-job", "b-job"), finished);
+        assertEquals(Arrays.asList("a", "b"), result.getCriticalPath());
+    }
+
+    @Test
+    public void testConcurrencyCapLimitsRunningJobs() throws Exception {
+        FakeCluster cluster = new FakeCluster();
+        JobWorkflow workflow = new JobWorkflow("wf", 2);
+        for (String id : Arrays.asList("a", "b", "c", "d", "e")) {
+            cluster.outcome(id, "Complete");
+            workflow.addJob(id, JobWorkflowTest::job);
+        }
+
+        JobWorkflowExecutor.Result result = run(cluster, workflow, 5000);
+
+        assertTrue(result.isSucceeded());
+        assertEquals(5, cluster.created.size());
+        assertEquals(2, cluster.maxRunning);
+    }
+
+    @Test
+    public void testFailedNodeSkipsDescendantsOnly() throws Exception {
+        FakeCluster cluster = new FakeCluster().outcome("a", "Failed").outcome("d", "Complete");
+        JobWorkflow workflow = new JobWorkflow("wf", 2)
+                .addJob("a", JobWorkflowTest::job)
+                .addJob("b", JobWorkflowTest::job, "a")
+                .addJob("c", JobWorkflowTest::job, "b")
+                .addJob("d", JobWorkflowTest::job);
+
+        JobWorkflowExecutor.Result result = run(cluster, workflow, 5000);
+
+        assertFalse(result.isSucceeded());
+        assertEquals(JobWorkflowExecutor.NodeState.FAILED, result.getStates().get("a"));
+        assertEquals(JobWorkflowExecutor.NodeState.SKIPPED, result.getStates().get("b"));
+        assertEquals(JobWorkflowExecutor.NodeState.SKIPPED, result.getStates().get("c"));
+        assertEquals(JobWorkflowExecutor.NodeState.SUCCEEDED, result.getStates().get("d"));
+        assertEquals(Arrays.asList("a", "d"), cluster.created);
+    }
+
+    @Test
+    public void testTimeoutDeletesRunningJobs() throws Exception {
+        FakeCluster cluster = new FakeCluster();
+        JobWorkflow workflow = new JobWorkflow("wf", 2)
+                .addJob("stuck", JobWorkflowTest::job)
+                .addJob("after", JobWorkflowTest::job, "stuck");
+
+        JobWorkflowExecutor.Result result = run(cluster, workflow, 50);
+
+        assertEquals(JobWorkflowExecutor.NodeState.TIMED_OUT, result.getStates().get("stuck"));
+        assertEquals(JobWorkflowExecutor.NodeState.SKIPPED, result.getStates().get("after"));
+        assertEquals(Arrays.asList("stuck-job"), cluster.deleted);
+        assertFalse(result.isSucceeded());
+    }
+
+    @Test
+    public void testInterruptedRunDeletesRunningJobs() throws Exception {
+        FakeCluster cluster = new FakeCluster();
+        JobWorkflow workflow = new JobWorkflow("wf", 2).addJob("stuck", JobWorkflowTest::job);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+        // As when the daemon shuts its worker pool down mid-run
+        Thread runner = new Thread(() -> {
+            try {
+                run(cluster, workflow, 60_000);
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        });
+        runner.start();
+        assertTrue(cluster.launched.await(5, TimeUnit.SECONDS));
+        runner.interrupt();
+        runner.join(5000);
+
+        assertInstanceOf(InterruptedException.class, thrown.get());
+        assertEquals(Arrays.asList("stuck-job"), cluster.deleted);
+    }
+
+    @Test
+    public void testBrokenTemplateFailsOnlyItsNode() throws Exception {
+        FakeCluster cluster = new FakeCluster().outcome("ok", "Complete");
+        JobWorkflow workflow = new JobWorkflow("wf", 2)
+                .addJob("broken", () -> {
+                    throw new IllegalStateException("template failed");
+                })
+                .addJob("after", JobWorkflowTest::job, "broken")
+                .addJob("ok", JobWorkflowTest::job);
+
+        JobWorkflowExecutor.Result result = run(cluster, workflow, 5000);
+
+        assertEquals(JobWorkflowExecutor.NodeState.FAILED, result.getStates().get("broken"));
+        assertEquals(JobWorkflowExecutor.NodeState.SKIPPED, result.getStates().get("after"));
+        assertEquals(JobWorkflowExecutor.NodeState.SUCCEEDED, result.getStates().get("ok"));
+        assertEquals(Arrays.asList("ok"), cluster.created);
+    }
+
+    @Test
+    public void testBackgroundNodeIsStoppedAfterItsWindow() throws Exception {
+        FakeCluster cluster = new FakeCluster().outcome("a", "Complete").outcome("b", "Complete");
+        List<String> finished = new ArrayList<>();
+        JobWorkflow workflow = new JobWorkflow("wf", 2)
+                .addBackgroundJob("sidecar", JobWorkflowTest::job, 50)
+                .addJob("a", JobWorkflowTest::job)
+                .addJob("b", JobWorkflowTest::job);
+
+        JobWorkflowExecutor.Result result = executor(cluster)
+                .onNodeFinished((job, failed) -> finished.add(job.getName()))
+                .execute(workflow, 5000);
+
+        assertTrue(result.isSucceeded());
+        assertEquals(JobWorkflowExecutor.NodeState.STOPPED, result.getStates().get("sidecar"));
+        assertEquals(Arrays.asList("sidecar-job"), cluster.deleted);
+        assertTrue(finished.contains("sidecar-job"));
+        assertEquals(2, cluster.maxRunning);
+    }
+
+    @Test
+    public void testNothingMayDependOnBackgroundNode() {
+        JobWorkflow workflow = new JobWorkflow("wf", 2).addBackgroundJob("sidecar", JobWorkflowTest::job, 1000);
+
+        assertThrows(IllegalArgumentException.class, () -> workflow.addJob("a", JobWorkflowTest::job, "sidecar"));
+    }
+}
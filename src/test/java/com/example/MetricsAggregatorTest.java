@@ -0,0 +1,222 @@
+package com.example;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.data.MetricDataType;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsAggregatorTest {
+
+    @Test
+    public void testSketchQuantilesWithinRelativeAccuracy() {
+        MetricsSketch sketch = new MetricsSketch();
+        for (int i = 1; i <= 1000; i++) {
+            sketch.add(i);
+        }
+
+        assertEquals(1000, sketch.getCount());
+        assertEquals(500, sketch.quantile(0.5), 500 * 0.02);
+        assertEquals(990, sketch.quantile(0.99), 990 * 0.02);
+        assertEquals(1000, sketch.quantile(1.0));
+    }
+
+    @Test
+    public void testSketchMergeMatchesSingleSketch() {
+        MetricsSketch low = new MetricsSketch();
+        MetricsSketch high = new MetricsSketch();
+        MetricsSketch all = new MetricsSketch();
+        for (int i = 1; i <= 500; i++) {
+            low.add(i);
+            all.add(i);
+        }
+        for (int i = 501; i <= 1000; i++) {
+            high.add(i);
+            all.add(i);
+        }
+
+        low.merge(high);
+
+        assertEquals(all.getCount(), low.getCount());
+        assertEquals(all.getSum(), low.getSum());
+        assertEquals(all.quantile(0.9), low.quantile(0.9));
+    }
+
+    @Test
+    public void testRecordFoldsJobsIntoTemplateWindows() {
+        MetricsAggregator aggregator = new MetricsAggregator(1000, MetricsAggregator.DetailRetention.NONE, 10);
+
+        aggregator.record("file-metrics", "job-1", false, samples("db_queries_total", 10.0), 100);
+        aggregator.record("file-metrics", "job-2", true, samples("db_queries_total", 30.0), 900);
+
+        assertTrue(aggregator.flush(999).isEmpty());
+
+        List<MetricsAggregator.Rollup> closed = aggregator.flush(1000);
+        assertEquals(1, closed.size());
+        MetricsAggregator.Rollup rollup = closed.get(0);
+        assertEquals("file-metrics", rollup.getTemplate());
+        assertEquals(2, rollup.getJobs());
+        assertEquals(1, rollup.getFailedJobs());
+        assertEquals(40.0, rollup.getMetrics().get("db_queries_total").getSum());
+        assertSame(rollup, aggregator.latestRollups(1000).get("file-metrics"));
+
+        aggregator.record("file-metrics", "job-3", false, samples("db_queries_total", 50.0), 1500);
+        assertEquals(1, aggregator.flush(2000).size());
+    }
+
+    @Test
+    public void testRecordClosesEndedWindowsWithoutReads() {
+        MetricsAggregator aggregator = new MetricsAggregator(1000, MetricsAggregator.DetailRetention.NONE, 10);
+        aggregator.record("db", "job-1", false, samples("db_queries_total", 10.0), 100);
+        aggregator.record("db", "job-2", false, samples("db_queries_total", 20.0), 1100);
+
+        // Window [0, 1000) was already closed by the second record
+        assertTrue(aggregator.flush(1100).isEmpty());
+        assertEquals(1, aggregator.latestRollups(1100).get("db").getJobs());
+    }
+
+    @Test
+    public void testLateJobMergesIntoClosedWindow() {
+        MetricsAggregator aggregator = new MetricsAggregator(1000, MetricsAggregator.DetailRetention.NONE, 10);
+        aggregator.record("db", "job-1", false, samples("db_queries_total", 10.0), 100);
+        aggregator.record("db", "job-2", false, samples("db_queries_total", 20.0), 1100);
+        aggregator.record("db", "late", true, samples("db_queries_total", 30.0), 200);
+
+        MetricsAggregator.Rollup rollup = aggregator.latestRollups(1500).get("db");
+        assertEquals(0, rollup.getWindowStart());
+        assertEquals(2, rollup.getJobs());
+        assertEquals(1, rollup.getFailedJobs());
+        assertEquals(3, aggregator.mergedRollups(2000).get("db").getJobs());
+    }
+
+    @Test
+    public void testClosedRollupsExpire() {
+        MetricsAggregator aggregator = new MetricsAggregator(1000, MetricsAggregator.DetailRetention.NONE, 10);
+        aggregator.record("db", "job-1", false, samples("db_queries_total", 10.0), 100);
+
+        assertTrue(aggregator.latestRollups(1500).containsKey("db"));
+        // One window later the rollup is no longer the latest, but is still retained for merging
+        assertTrue(aggregator.latestRollups(2500).isEmpty());
+        assertEquals(1, aggregator.mergedRollups(2500).get("db").getJobs());
+
+        long expired = 1000 + MetricsAggregator.HISTORY_WINDOWS * 1000L;
+        assertTrue(aggregator.mergedRollups(expired).isEmpty());
+    }
+
+    @Test
+    public void testMergedRollupsCombineWindows() {
+        MetricsAggregator aggregator = new MetricsAggregator(1000, MetricsAggregator.DetailRetention.NONE, 10);
+        aggregator.record("db", "job-1", false, samples("db_latency_ms", 10.0), 100);
+        aggregator.record("db", "job-2", true, samples("db_latency_ms", 30.0), 1100);
+
+        MetricsAggregator.Rollup merged = aggregator.mergedRollups(2000).get("db");
+
+        assertEquals(0, merged.getWindowStart());
+        assertEquals(2000, merged.getWindowEnd());
+        assertEquals(2, merged.getJobs());
+        assertEquals(1, merged.getFailedJobs());
+        assertEquals(40.0, merged.getMetrics().get("db_latency_ms").getSum());
+        assertEquals(30.0, merged.getMetrics().get("db_latency_ms").getMax());
+    }
+
+    @Test
+    public void testExportsSamplesAsExponentialHistogram() {
+        List<MetricData> exported = new ArrayList<>();
+        MetricExporter exporter = new MetricExporter() {
+            @Override
+            public CompletableResultCode export(Collection<MetricData> metrics) {
+                exported.addAll(metrics);
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+                return AggregationTemporality.CUMULATIVE;
+            }
+        };
+        SdkMeterProvider meterProvider = TelemetryBootstrap.registerViews(SdkMeterProvider.builder())
+                .registerMetricReader(PeriodicMetricReader.builder(exporter).build())
+                .build();
+
+        MetricsAggregator aggregator = new MetricsAggregator(1000, MetricsAggregator.DetailRetention.NONE, 10);
+        aggregator.registerExport(meterProvider.get("test"));
+        aggregator.record("db", "job-1", false, samples("db_latency_ms", 10.0), 100);
+        aggregator.record("db", "job-2", true, samples("db_latency_ms", 30.0), 200);
+        meterProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        meterProvider.shutdown().join(5, TimeUnit.SECONDS);
+
+        MetricData histogram = find(exported, MetricsAggregator.METRIC_HISTOGRAM);
+        assertEquals(MetricDataType.EXPONENTIAL_HISTOGRAM, histogram.getType());
+        assertEquals(Attributes.of(MetricsAggregator.TEMPLATE_KEY, "db", MetricsAggregator.METRIC_KEY, "db_latency_ms"),
+                histogram.getExponentialHistogramData().getPoints().iterator().next().getAttributes());
+        assertEquals(2, histogram.getExponentialHistogramData().getPoints().iterator().next().getCount());
+
+        assertEquals(2, find(exported, "job.template.jobs").getLongSumData().getPoints().size());
+    }
+
+    @Test
+    public void testDetailRetentionKeepsOnlyFailedJobsUpToLimit() {
+        MetricsAggregator aggregator = new MetricsAggregator(1000, MetricsAggregator.DetailRetention.FAILED_ONLY, 2);
+
+        aggregator.record("db", "ok", false, samples("db_connections_active", 5.0), 0);
+        aggregator.record("db", "bad-1", true, samples("db_connections_active", 1.0), 0);
+        aggregator.record("db", "bad-2", true, samples("db_connections_active", 2.0), 0);
+        aggregator.record("db", "bad-3", true, samples("db_connections_active", 3.0), 0);
+
+        List<MetricsAggregator.JobDetail> details = aggregator.getRetainedDetails("db");
+        assertEquals(2, details.size());
+        assertEquals("bad-2", details.get(0).getJobName());
+        assertEquals("bad-3", details.get(1).getJobName());
+    }
+
+    @Test
+    public void testParseMetricsKeepsLastCounterValue() {
+        Map<String, List<Double>> samples = new LinkedHashMap<>();
+        JobMetricsCollector.parseMetrics("=== SYSTEM METRICS ===\n"
+                + "process_memory_usage_bytes 100\n"
+                + "workload_iterations_total 0\n"
+                + "Processing iteration:  1\n"
+                + "process_memory_usage_bytes 200\n"
+                + "workload_iterations_total 2\n", samples);
+
+        assertEquals(Arrays.asList(100.0, 200.0), samples.get("process_memory_usage_bytes"));
+        assertEquals(Arrays.asList(2.0), samples.get("workload_iterations_total"));
+        assertEquals(2, samples.size());
+    }
+
+    private static MetricData find(List<MetricData> metrics, String name) {
+        return metrics.stream().filter(metric -> metric.getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("metric not exported: " + name));
+    }
+
+    private static Map<String, List<Double>> samples(String metric, double value) {
+        Map<String, List<Double>> samples = new LinkedHashMap<>();
+        samples.put(metric, Arrays.asList(value));
+        return samples;
+    }
+}
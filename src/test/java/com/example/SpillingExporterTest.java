@@ -0,0 +1,123 @@
+package com.example;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the spill format: the exporters serialize with OpenTelemetry's
+ * internal OTLP marshalers, so an upgrade that changes them must fail here.
+ */
+public class SpillingExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    /** A span exporter that always fails, as when the collector is down. */
+    private static final class UnreachableSpanExporter implements SpanExporter {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            calls.incrementAndGet();
+            return CompletableResultCode.ofFailure();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+
+    @Test
+    public void testFailedSpanBatchIsSpilledAsOtlpProtobuf() throws Exception {
+        UnreachableSpanExporter collector = new UnreachableSpanExporter();
+        try (DiskSpillBuffer buffer = DiskSpillBuffer.tryOpen(tempDir.resolve("spill"), 64 * 1024)) {
+            SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                    .addSpanProcessor(SimpleSpanProcessor.create(new SpillingSpanExporter(collector, buffer)))
+                    .build();
+
+            tracerProvider.get("test").spanBuilder("spilled-span").startSpan().end();
+            tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+            DiskSpillBuffer.Record record = buffer.peek();
+            assertEquals(SpillingSpanExporter.KIND_TRACES, record.getKind());
+            // ExportTraceServiceRequest starts with field 1 (resource_spans), length-delimited
+            assertEquals(0x0a, record.getPayload()[0]);
+            assertTrue(new String(record.getPayload(), StandardCharsets.ISO_8859_1).contains("spilled-span"));
+
+            // While spilled data waits, later batches queue behind it instead of overtaking it
+            tracerProvider.get("test").spanBuilder("queued-span").startSpan().end();
+            tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+            assertEquals(1, collector.calls.get());
+            assertEquals(2, buffer.getAppended());
+
+            tracerProvider.shutdown().join(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testFailedMetricBatchIsSpilledAsOtlpProtobuf() throws Exception {
+        MetricExporter collector = new MetricExporter() {
+            @Override
+            public CompletableResultCode export(Collection<MetricData> metrics) {
+                return CompletableResultCode.ofFailure();
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+                return AggregationTemporality.CUMULATIVE;
+            }
+        };
+
+        try (DiskSpillBuffer buffer = DiskSpillBuffer.tryOpen(tempDir.resolve("spill"), 64 * 1024)) {
+            SdkMeterProvider meterProvider = SdkMeterProvider.builder()
+                    .registerMetricReader(PeriodicMetricReader.builder(
+                            new SpillingMetricExporter(collector, buffer)).build())
+                    .build();
+
+            meterProvider.get("test").counterBuilder("spilled.counter").build().add(3);
+            meterProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+            DiskSpillBuffer.Record record = buffer.peek();
+            assertEquals(SpillingMetricExporter.KIND_METRICS, record.getKind());
+            assertEquals(0x0a, record.getPayload()[0]);
+            assertTrue(new String(record.getPayload(), StandardCharsets.ISO_8859_1).contains("spilled.counter"));
+
+            meterProvider.shutdown().join(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TelemetryBootstrapTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testLockedSpillFileFallsBackToPerProcessFile() throws Exception {
+        Path path = tempDir.resolve("spill");
+        try (DiskSpillBuffer shared = DiskSpillBuffer.tryOpen(path, 1024);
+             DiskSpillBuffer own = TelemetryBootstrap.openSpillBuffer(path, 1024)) {
+            assertNotNull(shared);
+            assertEquals(path.resolveSibling("spill." + ProcessHandle.current().pid()), own.getPath());
+        }
+    }
+
+    @Test
+    public void testUnusableSpillDirectoryDisablesSpilling() {
+        assertNull(TelemetryBootstrap.openSpillBuffer(tempDir.resolve("missing").resolve("spill"), 1024));
+    }
+}